@@ -0,0 +1,85 @@
+package com.interiordesign.benchmark;
+
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.Furniture;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FurnitureDAO queries against an in-memory H2 database initialized from
+ * schema.sql and filled with a synthetic catalog, through a Hikari pool as
+ * in the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FurnitureDaoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int catalogSize;
+
+    private HikariDataSource dataSource;
+    private FurnitureDAO furnitureDAO;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Furniture> items = SyntheticCatalog.generate(catalogSize, 42);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO furniture (name, width, depth, price, category) VALUES (?, ?, ?, ?, ?)",
+                items, 1000, (ps, f) -> {
+                    ps.setString(1, f.getName());
+                    ps.setDouble(2, f.getWidth());
+                    ps.setDouble(3, f.getDepth());
+                    ps.setInt(4, f.getPrice());
+                    ps.setString(5, f.getCategory());
+                });
+        jdbcTemplate.update("INSERT INTO catalog_version (id, version, updated_at) VALUES (1, 1, CURRENT_TIMESTAMP)");
+        furnitureDAO = new FurnitureDAO(jdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Furniture> findAll() {
+        return furnitureDAO.findAll();
+    }
+
+    @Benchmark
+    public Furniture findByCategory() {
+        return furnitureDAO.findByCategory("armchair");
+    }
+
+    @Benchmark
+    public List<Furniture> findAffordableFitting() {
+        return furnitureDAO.findAffordableFitting("sofa", 2000, 5.0, 4.0, 200);
+    }
+
+    @Benchmark
+    public Furniture findCheapestFitting() {
+        return furnitureDAO.findCheapestFitting("sofa", 2000, 5.0, 4.0);
+    }
+
+    @Benchmark
+    public long findCatalogVersion() {
+        return furnitureDAO.findCatalogVersion();
+    }
+}
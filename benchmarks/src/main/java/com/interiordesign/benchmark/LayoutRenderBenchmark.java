@@ -0,0 +1,93 @@
+package com.interiordesign.benchmark;
+
+import com.interiordesign.web.LayoutImageRenderer;
+import com.interiordesign.model.RoomLayout;
+import com.interiordesign.service.RuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side rendering of layout-result.html with the same Spring/SpEL
+ * dialect as the application. templateCache=false matches
+ * spring.thymeleaf.cache=false (template re-parsed on every render).
+ * renderSvg/renderPng draw the layout image itself (LayoutImageRenderer,
+ * uncached); templateCache does not affect them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LayoutRenderBenchmark {
+
+    @Param({"true", "false"})
+    public boolean templateCache;
+
+    @Param({"small", "large"})
+    public String roomSize;
+
+    private SpringTemplateEngine templateEngine;
+    private Context context;
+    private RoomLayout layout;
+    // cache disabled: measures drawing, not the content-hash lookup
+    private final LayoutImageRenderer imageRenderer = new LayoutImageRenderer(new SimpleMeterRegistry(), 0);
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(templateCache);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setLinkBuilder(new RootContextLinkBuilder());
+
+        layout = new RuleEngine()
+                .generateLayout(SyntheticCatalog.room(roomSize), SyntheticCatalog.generate(1000, 42));
+        context = new Context();
+        context.setVariables(Map.of("layout", layout,
+                "svg", imageRenderer.svgMarkup(layout, LayoutImageRenderer.DEFAULT_SCALE)));
+    }
+
+    @Benchmark
+    public String renderLayoutResult() {
+        StringWriter out = new StringWriter(8192);
+        templateEngine.process("layout-result", context, out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public byte[] renderSvg() {
+        return imageRenderer.render(layout, LayoutImageRenderer.Format.SVG, LayoutImageRenderer.DEFAULT_SCALE);
+    }
+
+    @Benchmark
+    public byte[] renderPng() {
+        return imageRenderer.render(layout, LayoutImageRenderer.Format.PNG, LayoutImageRenderer.DEFAULT_SCALE);
+    }
+
+    /**
+     * Context-relative links (@{/style.css}) need a web context; outside a
+     * servlet container resolve them against the root path instead.
+     */
+    private static final class RootContextLinkBuilder extends StandardLinkBuilder {
+        @Override
+        protected String computeContextPath(IExpressionContext context, String base, Map<String, Object> parameters) {
+            return "";
+        }
+    }
+}
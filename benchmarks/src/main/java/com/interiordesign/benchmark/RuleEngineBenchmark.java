@@ -0,0 +1,72 @@
+package com.interiordesign.benchmark;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import com.interiordesign.service.CatalogIndex;
+import com.interiordesign.service.LayoutSolver;
+import com.interiordesign.service.RuleEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout engines across room sizes/budgets and catalog sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleEngineBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int catalogSize;
+
+    @Param({"small", "medium", "large"})
+    public String roomSize;
+
+    private RuleEngine ruleEngine;
+    private LayoutSolver layoutSolver;
+    private List<Furniture> catalog;
+    private CatalogIndex index;
+    private Room room;
+
+    @Setup
+    public void setUp() {
+        ruleEngine = new RuleEngine();
+        layoutSolver = new LayoutSolver(ruleEngine, 50, 8, 0);
+        catalog = SyntheticCatalog.generate(catalogSize, 42);
+        index = CatalogIndex.of(catalog);
+        room = SyntheticCatalog.room(roomSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        layoutSolver.shutdown();
+    }
+
+    /** Greedy engine including the per-call index build (List overload). */
+    @Benchmark
+    public RoomLayout greedyFromList() {
+        return ruleEngine.generateLayout(room, catalog);
+    }
+
+    /** Greedy engine against the snapshot's prebuilt index (hot path). */
+    @Benchmark
+    public RoomLayout greedyFromIndex() {
+        return ruleEngine.generateLayout(room, index);
+    }
+
+    @Benchmark
+    public RoomLayout optimizing() {
+        return layoutSolver.solve(room, index);
+    }
+
+    @Benchmark
+    public CatalogIndex buildIndex() {
+        return CatalogIndex.of(catalog);
+    }
+}
@@ -0,0 +1,139 @@
+package com.interiordesign.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start benchmark: launches the application command repeatedly and
+ * measures the time from process start to the first successful
+ * {@code POST /layout}: HTTP 200 with a rendered layout (the result page's
+ * room drawing), so an error page served with 200 fails the run instead of
+ * being timed. Not a JMH benchmark; run it directly:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.interiordesign.benchmark.StartupBenchmark \
+ *     [--runs 5] [--warmup 1] [--max-ms 4000] -- java -jar target/interior-design-app-0.0.1-SNAPSHOT.jar
+ * </pre>
+ *
+ * {@code --server.port} is appended to the command. With --max-ms the exit
+ * code is 1 when the median exceeds the limit, so CI can fail on regressions.
+ */
+public final class StartupBenchmark {
+
+    private static final String FORM = "length=5&width=4&budget=2000";
+    /** Only on layout-result.html: the drawn room. */
+    private static final String RESULT_MARKER = "<div class=\"room-svg\"><svg";
+    private static final long TIMEOUT_MS = 120_000;
+    private static final long POLL_MS = 10;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        int warmup = 1;
+        long maxMs = 0;
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--max-ms" -> maxMs = Long.parseLong(args[++i]);
+                case "--" -> {
+                    command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    i = args.length;
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (command.isEmpty()) {
+            System.err.println("usage: StartupBenchmark [--runs N] [--warmup N] [--max-ms MS] -- <command>");
+            System.exit(2);
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        for (int i = 0; i < warmup; i++) {
+            System.out.printf("warmup %d: %d ms%n", i + 1, run(command, client));
+        }
+        long[] results = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            results[i] = run(command, client);
+            System.out.printf("run %d: %d ms%n", i + 1, results[i]);
+        }
+        Arrays.sort(results);
+        long median = results[runs / 2];
+        System.out.printf("time to first /layout: min %d ms, median %d ms, max %d ms (%d runs)%n",
+                results[0], median, results[runs - 1], runs);
+        if (maxMs > 0 && median > maxMs) {
+            System.out.printf("FAILED: median %d ms exceeds --max-ms %d%n", median, maxMs);
+            System.exit(1);
+        }
+    }
+
+    /** One cold start; returns milliseconds until POST /layout answered with a layout. */
+    private static long run(List<String> command, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> cmd = new ArrayList<>(command);
+        cmd.add("--server.port=" + port);
+        Path log = Files.createTempFile("startup-benchmark", ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/layout"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(FORM))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true)
+                .redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!process.isAlive() || elapsedMs(start) > TIMEOUT_MS) {
+                    throw new IllegalStateException("Application did not serve /layout (exit "
+                            + (process.isAlive() ? "none" : process.exitValue()) + "), see " + log);
+                }
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() == 200) {
+                        if (!response.body().contains(RESULT_MARKER)) {
+                            throw new IllegalStateException("POST /layout answered 200 without a layout result, see "
+                                    + log);
+                        }
+                        long elapsed = elapsedMs(start);
+                        Files.deleteIfExists(log);
+                        return elapsed;
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(POLL_MS);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.interiordesign.benchmark;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.Room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic catalogs and rooms for benchmarks.
+ * Sizes and prices vary around the seed rows in data.sql.
+ */
+final class SyntheticCatalog {
+
+    private static final String[] CATEGORIES = {"sofa", "coffee", "tvstand", "bookshelf", "sidetable", "armchair"};
+    private static final double[][] BASE_SIZE = {{2.0, 0.9}, {1.2, 0.6}, {1.5, 0.4}, {0.8, 0.3}, {0.5, 0.5}, {0.8, 0.8}};
+    private static final int[] BASE_PRICE = {800, 200, 300, 150, 100, 400};
+
+    private SyntheticCatalog() {}
+
+    static List<Furniture> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Furniture> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int c = i % CATEGORIES.length;
+            double scale = 0.7 + random.nextDouble() * 0.8;
+            double width = round(BASE_SIZE[c][0] * scale);
+            double depth = round(BASE_SIZE[c][1] * (0.8 + random.nextDouble() * 0.4));
+            int price = (int) (BASE_PRICE[c] * (0.5 + random.nextDouble() * 2.5));
+            items.add(new Furniture((long) i + 1, CATEGORIES[c] + "-" + i, width, depth, price, CATEGORIES[c]));
+        }
+        return items;
+    }
+
+    static Room room(String size) {
+        switch (size) {
+            case "small":
+                return new Room(3.0, 3.0, 800);
+            case "medium":
+                return new Room(6.0, 5.0, 2500);
+            case "large":
+                return new Room(12.0, 9.0, 8000);
+            default:
+                throw new IllegalArgumentException("Unknown room size: " + size);
+        }
+    }
+
+    private static double round(double meters) {
+        return Math.round(meters * 100) / 100.0;
+    }
+}
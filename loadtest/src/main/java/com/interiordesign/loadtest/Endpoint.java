@@ -0,0 +1,62 @@
+package com.interiordesign.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.StringJoiner;
+
+/**
+ * Layout endpoints the load test drives. Names are used in --mix, in the
+ * report and as histogram tags.
+ */
+enum Endpoint {
+
+    /** Form post rendering the result page (Thymeleaf). */
+    FORM("form", "/layout", "application/x-www-form-urlencoded"),
+    /** Compact JSON layout. */
+    JSON("json", "/api/layouts", "application/json"),
+    /** NDJSON batch of --batch-size rooms; latency is until the last line. */
+    BATCH("batch", "/api/layouts/batch", "application/json");
+
+    private final String id;
+    private final String path;
+    private final String contentType;
+
+    Endpoint(String id, String path, String contentType) {
+        this.id = id;
+        this.path = path;
+        this.contentType = contentType;
+    }
+
+    String id() {
+        return id;
+    }
+
+    static Endpoint of(String id) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.id.equals(id)) return endpoint;
+        }
+        throw new IllegalArgumentException("Unknown endpoint '" + id + "' (form, json or batch)");
+    }
+
+    /** Request for the next room(s) from the mix. */
+    HttpRequest request(URI base, RoomMix mix, int batchSize, Duration timeout) {
+        String body;
+        switch (this) {
+            case FORM -> body = mix.next().form();
+            case JSON -> body = mix.next().json();
+            default -> {
+                StringJoiner rooms = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < batchSize; i++) {
+                    rooms.add(mix.next().json());
+                }
+                body = rooms.toString();
+            }
+        }
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", contentType)
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
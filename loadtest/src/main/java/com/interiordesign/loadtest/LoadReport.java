@@ -0,0 +1,231 @@
+package com.interiordesign.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one run, per endpoint.
+ *
+ * Latencies are recorded in microseconds into HdrHistogram recorders and
+ * collected once per second (flushInterval) into latency.hlog, one tagged
+ * interval histogram per endpoint, readable with HistogramLogAnalyzer or
+ * HistogramLogProcessor. write() adds report.json (settings and summary,
+ * the input to compare()) and a percentile distribution per endpoint
+ * (&lt;endpoint&gt;.hgrm, values in milliseconds, for the HdrHistogram plotter).
+ */
+final class LoadReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MS = 1000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Object> settings;
+    private final Map<Endpoint, Series> series = new EnumMap<>(Endpoint.class);
+    private HistogramLogWriter log;
+    private long baseTimeMs;
+
+    LoadReport(Map<String, Object> settings, List<Endpoint> endpoints) {
+        this.settings = settings;
+        for (Endpoint endpoint : endpoints) {
+            series.put(endpoint, new Series());
+        }
+    }
+
+    /** Start writing interval histograms to the given file. */
+    synchronized void startLog(Path file, long startMs) throws IOException {
+        log = new HistogramLogWriter(new PrintStream(Files.newOutputStream(file), false, "UTF-8"));
+        baseTimeMs = startMs;
+        log.outputComment("interior-design-app load test, latency in microseconds per endpoint (tag)");
+        log.outputLogFormatVersion();
+        log.outputStartTime(startMs);
+        log.setBaseTime(startMs);
+        log.outputLegend();
+    }
+
+    /**
+     * Record one measured request: latency from its intended send time, and
+     * the error (status code or failure kind), or null if it succeeded.
+     */
+    void record(Endpoint endpoint, long latencyNanos, String error) {
+        Series s = series.get(endpoint);
+        s.recorder.recordValue(Math.max(1, latencyNanos / 1000));
+        if (error == null) {
+            s.ok.increment();
+        } else {
+            s.errors.computeIfAbsent(error, e -> new LongAdder()).increment();
+        }
+    }
+
+    /** Move the latencies recorded since the last call into the totals and the log. */
+    synchronized void flushInterval() {
+        for (Map.Entry<Endpoint, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            s.interval = s.recorder.getIntervalHistogram(s.interval);
+            if (s.interval.getTotalCount() == 0) continue;
+            s.total.add(s.interval);
+            if (log != null) {
+                s.interval.setTag(entry.getKey().id());
+                log.outputIntervalHistogram((s.interval.getStartTimeStamp() - baseTimeMs) / 1000.0,
+                        (s.interval.getEndTimeStamp() - baseTimeMs) / 1000.0, s.interval, MICROS_PER_MS);
+            }
+        }
+    }
+
+    /** Write report.json and the .hgrm files; closes the interval log. */
+    synchronized Map<String, Object> write(Path dir, double measuredSeconds) throws IOException {
+        flushInterval();
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        long allOk = 0;
+        Map<String, Long> allErrors = new TreeMap<>();
+        for (Map.Entry<Endpoint, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            Map<String, Long> errors = errorCounts(s);
+            endpoints.put(entry.getKey().id(), summary(s.total, s.ok.sum(), errors, measuredSeconds));
+            all.add(s.total);
+            allOk += s.ok.sum();
+            errors.forEach((k, v) -> allErrors.merge(k, v, Long::sum));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(entry.getKey().id() + ".hgrm")),
+                    false, "UTF-8")) {
+                s.total.outputPercentileDistribution(out, 5, MICROS_PER_MS);
+            }
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("measuredSeconds", round(measuredSeconds));
+        report.put("all", summary(all, allOk, allErrors, measuredSeconds));
+        report.put("endpoints", endpoints);
+        MAPPER.writeValue(dir.resolve("report.json").toFile(), report);
+        return report;
+    }
+
+    /** One line per endpoint of a report returned by write(). */
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> report, PrintStream out) {
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("endpoints"));
+        rows.put("all", report.get("all"));
+        out.printf("%-8s %9s %9s %8s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "ok/s", "errors%",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Object> row : rows.entrySet()) {
+            Map<String, Object> s = (Map<String, Object>) row.getValue();
+            Map<String, Object> ms = (Map<String, Object>) s.get("latencyMs");
+            out.printf(Locale.ROOT, "%-8s %9d %9.1f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", row.getKey(),
+                    (Long) s.get("requests"), (Double) s.get("throughput"), (Double) s.get("errorRate"),
+                    (Double) ms.get("p50"), (Double) ms.get("p90"), (Double) ms.get("p99"), (Double) ms.get("p99.9"),
+                    (Double) ms.get("max"));
+            Map<String, Long> errors = (Map<String, Long>) s.get("errors");
+            if (!errors.isEmpty()) out.println("         errors: " + errors);
+        }
+    }
+
+    /**
+     * Print two report.json files side by side. Returns false if the p99
+     * latency of any endpoint (or of all requests) grew by more than
+     * maxP99RegressionPct percent, or an endpoint's error rate grew.
+     */
+    static boolean compare(Path basePath, Path currentPath, double maxP99RegressionPct, PrintStream out)
+            throws IOException {
+        JsonNode base = MAPPER.readTree(basePath.toFile());
+        JsonNode current = MAPPER.readTree(currentPath.toFile());
+        List<String> names = new ArrayList<>();
+        names.add("all");
+        current.path("endpoints").fieldNames().forEachRemaining(names::add);
+        boolean ok = true;
+        out.printf("%-8s %-14s %12s %12s %9s%n", "endpoint", "metric", "base", "current", "change");
+        for (String name : names) {
+            JsonNode b = name.equals("all") ? base.path("all") : base.path("endpoints").path(name);
+            JsonNode c = name.equals("all") ? current.path("all") : current.path("endpoints").path(name);
+            if (b.isMissingNode()) {
+                out.printf("%-8s (not in base run)%n", name);
+                continue;
+            }
+            row(out, name, "ok/s", b.path("throughput"), c.path("throughput"));
+            row(out, name, "error rate %", b.path("errorRate"), c.path("errorRate"));
+            for (String metric : List.of("p50", "p90", "p99", "p99.9", "max")) {
+                row(out, name, metric + " ms", b.path("latencyMs").path(metric), c.path("latencyMs").path(metric));
+            }
+            double baseP99 = b.path("latencyMs").path("p99").asDouble();
+            double currentP99 = c.path("latencyMs").path("p99").asDouble();
+            if (baseP99 > 0 && (currentP99 - baseP99) / baseP99 * 100 > maxP99RegressionPct) {
+                out.printf("REGRESSION: %s p99 %.3f ms -> %.3f ms (limit +%.1f%%)%n", name, baseP99, currentP99,
+                        maxP99RegressionPct);
+                ok = false;
+            }
+            if (c.path("errorRate").asDouble() > b.path("errorRate").asDouble()) {
+                out.printf("REGRESSION: %s error rate %.3f%% -> %.3f%%%n", name, b.path("errorRate").asDouble(),
+                        c.path("errorRate").asDouble());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static void row(PrintStream out, String name, String metric, JsonNode base, JsonNode current) {
+        double b = base.asDouble();
+        double c = current.asDouble();
+        String change = b == 0 ? "" : String.format(Locale.ROOT, "%+.1f%%", (c - b) / b * 100);
+        out.printf(Locale.ROOT, "%-8s %-14s %12.3f %12.3f %9s%n", name, metric, b, c, change);
+    }
+
+    private static Map<String, Object> summary(Histogram latency, long ok, Map<String, Long> errors,
+                                               double measuredSeconds) {
+        long failed = errors.values().stream().mapToLong(Long::longValue).sum();
+        long requests = ok + failed;
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("mean", round(latency.getMean() / MICROS_PER_MS));
+        for (double p : PERCENTILES) {
+            latencyMs.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                    round(latency.getValueAtPercentile(p) / MICROS_PER_MS));
+        }
+        latencyMs.put("max", round(latency.getMaxValue() / MICROS_PER_MS));
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("ok", ok);
+        summary.put("errors", errors);
+        summary.put("errorRate", requests == 0 ? 0.0 : round(failed * 100.0 / requests));
+        summary.put("throughput", round(ok / measuredSeconds)); // successful responses per second
+        summary.put("latencyMs", latencyMs);
+        return summary;
+    }
+
+    private static Map<String, Long> errorCounts(Series s) {
+        Map<String, Long> errors = new TreeMap<>();
+        s.errors.forEach((k, v) -> errors.put(k, v.sum()));
+        return errors;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static final class Series {
+        final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        final LongAdder ok = new LongAdder();
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        Histogram interval;
+    }
+}
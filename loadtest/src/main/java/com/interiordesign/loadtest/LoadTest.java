@@ -0,0 +1,306 @@
+package com.interiordesign.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-model load test of the layout endpoints: requests are sent at a fixed
+ * arrival rate whether or not earlier ones have completed, so a slow server
+ * builds a backlog instead of slowing the generator down. Latency is measured
+ * from each request's intended send time, so queueing in the generator or
+ * the server is included (no coordinated omission).
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar [--rate 200] [--duration 60] [--warmup 10]
+ *     [--mix form=50,json=40,batch=10] [--batch-size 10] [--seed 1] [--timeout-ms 10000]
+ *     [--max-in-flight 5000] [--out DIR] (--url http://host:port | -- java -jar target/app.jar ...)
+ * java -jar loadtest/target/loadtest.jar compare BASE/report.json CURRENT/report.json [--max-p99-regression 10]
+ * </pre>
+ *
+ * With a command, the application is started with {@code --server.port}
+ * appended (in-memory H2 as configured), its output goes to app.log in the
+ * report directory, and it is stopped afterwards. Only requests intended to
+ * start after the warmup are recorded. compare exits with 1 on a regression.
+ */
+public final class LoadTest {
+
+    private static final long STARTUP_TIMEOUT_MS = 120_000;
+    /** A send more than this late means the generator itself is saturated. */
+    private static final long LATE_SEND_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            System.exit(compare(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        double rate = 200;
+        int durationSeconds = 60;
+        int warmupSeconds = 10;
+        String mix = "form=50,json=40,batch=10";
+        int batchSize = 10;
+        long seed = 1;
+        long timeoutMs = 10_000;
+        int maxInFlight = 5_000;
+        String url = null;
+        Path out = null;
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rate" -> rate = Double.parseDouble(args[++i]);
+                case "--duration" -> durationSeconds = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(args[++i]);
+                case "--mix" -> mix = args[++i];
+                case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--timeout-ms" -> timeoutMs = Long.parseLong(args[++i]);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(args[++i]);
+                case "--url" -> url = args[++i];
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--" -> {
+                    command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    i = args.length;
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if ((url == null) == command.isEmpty() || rate <= 0 || durationSeconds <= 0) {
+            System.err.println("usage: LoadTest [--rate R] [--duration S] [--warmup S] [--mix form=W,json=W,batch=W]"
+                    + " [--batch-size N] [--seed N] [--timeout-ms MS] [--max-in-flight N] [--out DIR]"
+                    + " (--url URL | -- <command>)");
+            System.err.println("       LoadTest compare BASE.json CURRENT.json [--max-p99-regression PCT]");
+            System.exit(2);
+        }
+        if (out == null) {
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            out = Paths.get("loadtest-results", stamp);
+        }
+        Files.createDirectories(out);
+
+        Map<Endpoint, Integer> weights = parseMix(mix);
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("rate", rate);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("mix", mix);
+        settings.put("batchSize", batchSize);
+        settings.put("seed", seed);
+        settings.put("timeoutMs", timeoutMs);
+        settings.put("target", url != null ? url : String.join(" ", command));
+        settings.put("startedAt", LocalDateTime.now().toString());
+        settings.put("javaVersion", System.getProperty("java.version"));
+        settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        Process app = null;
+        try {
+            if (url == null) {
+                int port = freePort();
+                url = "http://localhost:" + port;
+                app = start(command, port, out.resolve("app.log"), client);
+            }
+            LoadReport report = new LoadReport(settings, new ArrayList<>(weights.keySet()));
+            Run run = new Run(client, URI.create(url), report, weights, batchSize, seed,
+                    Duration.ofMillis(timeoutMs), maxInFlight);
+            run.execute(rate, warmupSeconds, durationSeconds, out.resolve("latency.hlog"));
+            settings.put("scheduled", run.scheduled);
+            settings.put("lateSends", run.lateSends);
+            settings.put("notSent", run.notSent);
+            LoadReport.print(report.write(out, durationSeconds), System.out);
+            if (run.lateSends > run.scheduled / 100) {
+                System.out.printf("WARNING: %d of %d sends were over 10 ms late; the generator is saturated and "
+                        + "the target rate was not met%n", run.lateSends, run.scheduled);
+            }
+            System.out.println("Report: " + out.toAbsolutePath());
+        } finally {
+            if (app != null) {
+                app.destroy();
+                if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                    app.destroyForcibly().waitFor();
+                }
+            }
+        }
+    }
+
+    private static int compare(String[] args) throws IOException {
+        if (args.length != 2 && !(args.length == 4 && args[2].equals("--max-p99-regression"))) {
+            System.err.println("usage: LoadTest compare BASE.json CURRENT.json [--max-p99-regression PCT]");
+            return 2;
+        }
+        double limit = args.length == 4 ? Double.parseDouble(args[3]) : 10;
+        return LoadReport.compare(Paths.get(args[0]), Paths.get(args[1]), limit, System.out) ? 0 : 1;
+    }
+
+    /** Endpoint weights in mix order, e.g. "form=50,json=40,batch=10". */
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad --mix entry '" + part + "'");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) throw new IllegalArgumentException("Negative weight in --mix: " + part);
+            if (weight > 0) weights.put(Endpoint.of(kv[0].trim()), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("--mix has no endpoint with a weight");
+        return weights;
+    }
+
+    /** Start the application and wait until its health endpoint answers 200. */
+    private static Process start(List<String> command, int port, Path log, HttpClient client) throws Exception {
+        List<String> cmd = new ArrayList<>(command);
+        cmd.add("--server.port=" + port);
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        while (true) {
+            if (!process.isAlive() || System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException("Application did not become healthy, see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return process;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** One load run: a scheduler thread sending at fixed intervals, completions recorded asynchronously. */
+    private static final class Run {
+        private final HttpClient client;
+        private final URI base;
+        private final LoadReport report;
+        private final Endpoint[] picks;
+        private final int batchSize;
+        private final RoomMix rooms;
+        private final SplittableRandom random;
+        private final Duration timeout;
+        private final int maxInFlight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        long scheduled;
+        long lateSends;
+        long notSent;
+
+        Run(HttpClient client, URI base, LoadReport report, Map<Endpoint, Integer> weights, int batchSize,
+            long seed, Duration timeout, int maxInFlight) {
+            this.client = client;
+            this.base = base;
+            this.report = report;
+            this.picks = weights.entrySet().stream()
+                    .flatMap(e -> Stream.generate(e::getKey).limit(e.getValue()))
+                    .toArray(Endpoint[]::new);
+            this.batchSize = batchSize;
+            this.rooms = new RoomMix(seed);
+            this.random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+            this.timeout = timeout;
+            this.maxInFlight = maxInFlight;
+        }
+
+        void execute(double rate, int warmupSeconds, int durationSeconds, Path logFile) throws Exception {
+            double intervalNanos = 1e9 / rate;
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            ScheduledExecutorService collector = Executors.newSingleThreadScheduledExecutor();
+            System.out.printf("warmup %d s, then %d s at %.1f requests/s against %s%n", warmupSeconds,
+                    durationSeconds, rate, base);
+            boolean measuring = false;
+            try {
+                for (long i = 0; ; i++) {
+                    long intended = start + (long) (i * intervalNanos);
+                    if (intended >= end) break;
+                    if (!measuring && intended >= measureFrom) {
+                        measuring = true;
+                        report.startLog(logFile, System.currentTimeMillis());
+                        collector.scheduleAtFixedRate(report::flushInterval, 1, 1, TimeUnit.SECONDS);
+                    }
+                    long now;
+                    while ((now = System.nanoTime()) < intended) {
+                        LockSupport.parkNanos(intended - now);
+                    }
+                    Endpoint endpoint = picks[random.nextInt(picks.length)];
+                    HttpRequest request = endpoint.request(base, rooms, batchSize, timeout);
+                    if (measuring) {
+                        scheduled++;
+                        if (now - intended > LATE_SEND_NANOS) lateSends++;
+                    }
+                    send(endpoint, request, intended, measuring);
+                }
+                long drainUntil = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+                while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                collector.shutdownNow();
+                collector.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+
+        private void send(Endpoint endpoint, HttpRequest request, long intended, boolean measured) {
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    notSent++;
+                    report.record(endpoint, System.nanoTime() - intended, "not-sent");
+                }
+                return;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long latency = System.nanoTime() - intended;
+                inFlight.decrementAndGet();
+                if (!measured) return;
+                String error;
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    error = cause instanceof HttpTimeoutException ? "timeout"
+                            : cause instanceof ConnectException ? "connect" : cause.getClass().getSimpleName();
+                } else {
+                    error = response.statusCode() == 200 ? null : String.valueOf(response.statusCode());
+                }
+                report.record(endpoint, latency, error);
+            });
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.interiordesign.loadtest;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Room inputs shaped like what users enter: mostly bedroom- and living-room
+ * sized rooms with some large ones, dimensions to 0.1 m, budgets around
+ * $2,500 (log-normal, to the nearest $50) within the form limits. Seeded, so
+ * two runs with the same seed send the same rooms.
+ */
+final class RoomMix {
+
+    private static final double MIN_SIDE = 3.0;
+    private static final double MAX_SIDE = 15.0;
+    private static final int MIN_BUDGET = 500;
+    private static final int MAX_BUDGET = 10_000;
+    private static final double MEDIAN_BUDGET = 2_500;
+    private static final double BUDGET_SIGMA = 0.6;
+
+    private final SplittableRandom random;
+
+    RoomMix(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /** Next room; not thread-safe (the scheduler thread draws all rooms). */
+    Room next() {
+        double size = random.nextDouble();
+        double length;
+        double width;
+        if (size < 0.6) {          // bedrooms, offices
+            length = uniform(3.0, 6.0);
+            width = uniform(3.0, 5.0);
+        } else if (size < 0.9) {   // living rooms
+            length = uniform(5.0, 9.0);
+            width = uniform(4.0, 7.0);
+        } else {                   // open plan
+            length = uniform(8.0, 15.0);
+            width = uniform(6.0, 12.0);
+        }
+        if (random.nextBoolean()) { // either side may be entered first
+            double t = length;
+            length = width;
+            width = t;
+        }
+        double budget = MEDIAN_BUDGET * Math.exp(BUDGET_SIGMA * gaussian());
+        return new Room(tenths(length), tenths(width),
+                (int) Math.max(MIN_BUDGET, Math.min(MAX_BUDGET, Math.round(budget / 50) * 50)));
+    }
+
+    private double uniform(double from, double to) {
+        return from + random.nextDouble() * (to - from);
+    }
+
+    private double gaussian() {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double tenths(double meters) {
+        return Math.max(MIN_SIDE, Math.min(MAX_SIDE, Math.round(meters * 10) / 10.0));
+    }
+
+    /** One room input. */
+    static final class Room {
+        final double length;
+        final double width;
+        final int budget;
+
+        Room(double length, double width, int budget) {
+            this.length = length;
+            this.width = width;
+            this.budget = budget;
+        }
+
+        String form() {
+            return String.format(Locale.ROOT, "length=%.1f&width=%.1f&budget=%d", length, width, budget);
+        }
+
+        String json() {
+            return String.format(Locale.ROOT, "{\"length\":%.1f,\"width\":%.1f,\"budget\":%d}",
+                    length, width, budget);
+        }
+    }
+}
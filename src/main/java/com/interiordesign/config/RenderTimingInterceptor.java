@@ -0,0 +1,47 @@
+package com.interiordesign.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Times view rendering (Thymeleaf) separately from the handler: postHandle
+ * runs just before the view renders, afterCompletion just after.
+ * Recorded as layout.render{view}.
+ */
+public class RenderTimingInterceptor implements HandlerInterceptor {
+
+    private static final String SAMPLE_ATTRIBUTE = RenderTimingInterceptor.class.getName() + ".sample";
+    private static final String VIEW_ATTRIBUTE = RenderTimingInterceptor.class.getName() + ".view";
+
+    private final MeterRegistry registry;
+
+    public RenderTimingInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView != null && modelAndView.getViewName() != null) {
+            request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+            request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(registry));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object sample = request.getAttribute(SAMPLE_ATTRIBUTE);
+        if (sample instanceof Timer.Sample) {
+            ((Timer.Sample) sample).stop(Timer.builder("layout.render")
+                    .description("Server-side template rendering time")
+                    .tag("view", (String) request.getAttribute(VIEW_ATTRIBUTE))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
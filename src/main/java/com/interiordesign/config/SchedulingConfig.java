@@ -0,0 +1,12 @@
+package com.interiordesign.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks (catalog refresh polling).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,64 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.CatalogChange;
+import com.interiordesign.service.CatalogService;
+import com.interiordesign.service.CatalogSnapshot;
+import com.interiordesign.service.CatalogWriteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin operations on the furniture catalog: snapshot reload and batched
+ * edits.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/catalog")
+public class CatalogAdminController {
+
+    private final CatalogService catalogService;
+    private final CatalogWriteService writeService;
+    private final int maxChangeItems;
+
+    public CatalogAdminController(CatalogService catalogService, CatalogWriteService writeService,
+                                  @Value("${catalog.write.max-items:10000}") int maxChangeItems) {
+        this.catalogService = catalogService;
+        this.writeService = writeService;
+        this.maxChangeItems = maxChangeItems;
+    }
+
+    @PostMapping("/reload")
+    public Map<String, Object> reload() {
+        CatalogSnapshot snapshot = catalogService.reload();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", snapshot.getVersion());
+        body.put("items", snapshot.getItems().size());
+        body.put("loadedAt", snapshot.getLoadedAt().toString());
+        return body;
+    }
+
+    /**
+     * Upserts and deletes applied together as one new catalog version.
+     */
+    @PostMapping("/changes")
+    public ResponseEntity<?> change(@RequestBody CatalogChange change) {
+        if (change.size() > maxChangeItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.ok(writeService.apply(change));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of(e.getMessage())));
+        }
+    }
+}
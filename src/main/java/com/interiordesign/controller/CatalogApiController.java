@@ -0,0 +1,40 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.service.CatalogService;
+import com.interiordesign.service.CatalogSnapshot;
+import com.interiordesign.web.LayoutJsonWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+
+/**
+ * Read-only catalog for API clients, so layouts can reference items by id.
+ * ETag is the catalog version; unchanged catalogs answer 304.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogApiController {
+
+    private final CatalogService catalogService;
+    private final LayoutJsonWriter jsonWriter;
+
+    public CatalogApiController(CatalogService catalogService, LayoutJsonWriter jsonWriter) {
+        this.catalogService = catalogService;
+        this.jsonWriter = jsonWriter;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public void catalog(ServletWebRequest request, HttpServletResponse response) throws IOException {
+        CatalogSnapshot snapshot = catalogService.current();
+        if (request.checkNotModified("\"catalog-" + snapshot.getVersion() + "\"")) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonWriter.writeCatalog(response.getOutputStream(), snapshot.getVersion(), snapshot.getItems());
+    }
+}
@@ -0,0 +1,72 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.CatalogImportJob;
+import com.interiordesign.service.CatalogImportService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admin endpoints for bulk catalog imports. Imports run in the background;
+ * poll the job for progress.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/catalog/imports")
+public class CatalogImportController {
+
+    private final CatalogImportService importService;
+
+    public CatalogImportController(CatalogImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> start(@RequestParam("file") String file,
+                                   @RequestParam(value = "format", required = false) String format,
+                                   @RequestParam(value = "mode", defaultValue = "replace") String mode) {
+        try {
+            CatalogImportJob job = importService.start(file,
+                    format == null ? null : CatalogImportJob.Format.valueOf(format.toUpperCase(Locale.ROOT)),
+                    CatalogImportJob.Mode.valueOf(mode.toUpperCase(Locale.ROOT)));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("errors", List.of(e.getMessage())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of(e.getMessage())));
+        }
+    }
+
+    @GetMapping
+    public List<CatalogImportJob> recent() {
+        return importService.recent(20);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CatalogImportJob> get(@PathVariable("id") long id) {
+        CatalogImportJob job = importService.find(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resume(@PathVariable("id") long id) {
+        try {
+            CatalogImportJob job = importService.resume(id);
+            return job == null ? ResponseEntity.notFound().build() : ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("errors", List.of(e.getMessage())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of(e.getMessage())));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.interiordesign.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.boot.web.servlet.error.ErrorController;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +13,7 @@ import java.io.StringWriter;
 /**
  * Custom error controller to override Whitelabel page and show full stack trace.
  */
+@Lazy
 @Controller
 public class CustomErrorController implements ErrorController {
 
@@ -0,0 +1,77 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.FloorPlan;
+import com.interiordesign.model.FloorPlanLayout;
+import com.interiordesign.service.FloorPlanService;
+import com.interiordesign.web.LayoutJsonWriter;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Floor plans: several rooms (living room, bedroom, study, ...) furnished
+ * from one total budget in one request. See FloorPlanService.
+ */
+@RestController
+@RequestMapping("/api/floor-plans")
+public class FloorPlanController {
+
+    private final FloorPlanService floorPlanService;
+    private final LayoutJsonWriter jsonWriter;
+    private final int maxRooms;
+
+    public FloorPlanController(FloorPlanService floorPlanService, LayoutJsonWriter jsonWriter,
+                               @Value("${floorplan.max-rooms:20}") int maxRooms) {
+        this.floorPlanService = floorPlanService;
+        this.jsonWriter = jsonWriter;
+        this.maxRooms = maxRooms;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> plan(@Valid @RequestBody FloorPlan plan, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return errors(HttpStatus.BAD_REQUEST, messages(bindingResult));
+        }
+        if (plan.getRooms().size() > maxRooms) {
+            return errors(HttpStatus.PAYLOAD_TOO_LARGE, List.of("At most " + maxRooms + " rooms per floor plan"));
+        }
+        FloorPlanLayout layout;
+        try {
+            layout = floorPlanService.plan(plan);
+        } catch (IllegalArgumentException e) {
+            return errors(HttpStatus.BAD_REQUEST, List.of(e.getMessage()));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> jsonWriter.writeFloorPlan(out, layout));
+    }
+
+    private ResponseEntity<StreamingResponseBody> errors(HttpStatus status, List<String> errors) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(out -> jsonWriter.writeErrors(out, errors));
+    }
+
+    /** Messages, prefixed with the room for errors of one room ("rooms[1]: Width is required"). */
+    private static List<String> messages(BindingResult bindingResult) {
+        List<String> messages = new ArrayList<>();
+        for (ObjectError error : bindingResult.getAllErrors()) {
+            String field = error instanceof FieldError ? ((FieldError) error).getField() : "";
+            int dot = field.indexOf("].");
+            messages.add(dot >= 0 ? field.substring(0, dot + 1) + ": " + error.getDefaultMessage()
+                    : error.getDefaultMessage());
+        }
+        return messages;
+    }
+}
@@ -1,20 +1,51 @@
 package com.interiordesign.controller;
 
+import com.interiordesign.service.DatabaseBusyException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 /**
- * Global exception handler to avoid Whitelabel error page.
- * Any unhandled exception will render an error template with details.
+ * Exception handler for the HTML pages, to avoid the Whitelabel error page.
+ * Any unhandled exception renders the error template with details and a
+ * matching status: the exception's own for ResponseStatusException and other
+ * ErrorResponse exceptions (404 for an unknown layout id), 500 otherwise.
+ * JSON and admin endpoints are handled by ApiExceptionHandler.
  */
-@ControllerAdvice
+@ControllerAdvice(assignableTypes = HomeController.class)
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(DatabaseBusyException.class)
+    public String handleDatabaseBusy(DatabaseBusyException ex, Model model, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return errorPage(ex, HttpStatus.SERVICE_UNAVAILABLE, model, response);
+    }
+
     @ExceptionHandler(Exception.class)
-    public String handleException(Exception ex, Model model) {
-        model.addAttribute("errorMessage", ex.getMessage());
+    public String handleException(Exception ex, Model model, HttpServletResponse response) {
+        if (ex instanceof ErrorResponse) {
+            ErrorResponse error = (ErrorResponse) ex;
+            String detail = error.getBody().getDetail();
+            model.addAttribute("stackTrace", "No stack trace");
+            return errorPage(detail != null ? detail : ex.getMessage(), error.getStatusCode(), model, response);
+        }
+        return errorPage(ex, HttpStatus.INTERNAL_SERVER_ERROR, model, response);
+    }
+
+    private String errorPage(Exception ex, HttpStatusCode status, Model model, HttpServletResponse response) {
         model.addAttribute("stackTrace", getStackTraceAsString(ex));
+        return errorPage(ex.getMessage(), status, model, response);
+    }
+
+    private String errorPage(String message, HttpStatusCode status, Model model, HttpServletResponse response) {
+        response.setStatus(status.value());
+        model.addAttribute("status", status.value());
+        model.addAttribute("message", message);
         return "error-page"; // maps to error-page.html
     }
 
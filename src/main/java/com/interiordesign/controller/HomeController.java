@@ -3,19 +3,24 @@ package com.interiordesign.controller;
 import com.interiordesign.model.Room;
 import com.interiordesign.model.RoomLayout;
 import com.interiordesign.service.LayoutService;
+import com.interiordesign.web.LayoutImageRenderer;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @Controller
 public class HomeController {
 
     private final LayoutService layoutService;
+    private final LayoutImageRenderer imageRenderer;
 
-    public HomeController(LayoutService layoutService) {
+    public HomeController(LayoutService layoutService, LayoutImageRenderer imageRenderer) {
         this.layoutService = layoutService;
+        this.imageRenderer = imageRenderer;
     }
 
     @GetMapping("/")
@@ -37,8 +42,45 @@ public class HomeController {
         RoomLayout layout = layoutService.createLayout(room);
 
         // add warnings/errors if any
-        model.addAttribute("layout", layout);
-        model.addAttribute("scale", 60); // pixels per meter for rendering
+        addLayout(model, layout);
+        return "layout-result";
+    }
+
+    /**
+     * Reopen a saved design from the layout history.
+     */
+    @GetMapping("/layout/{id}")
+    public String showLayout(@PathVariable("id") long id, Model model) {
+        RoomLayout layout = layoutService.findLayout(id);
+        if (layout == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Layout " + id + " not found");
+        }
+        addLayout(model, layout);
+        return "layout-result";
+    }
+
+    /**
+     * Edit a saved design (form on the result page): placements that still
+     * fit the new size and budget are kept.
+     */
+    @PostMapping("/layout/{id}/adjust")
+    public String adjustLayout(@PathVariable("id") long id, @Valid @ModelAttribute("room") Room room,
+                               BindingResult bindingResult, Model model) {
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("errors", bindingResult.getAllErrors());
+            return "room-form";
+        }
+        RoomLayout previous = layoutService.findLayout(id);
+        if (previous == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Layout " + id + " not found");
+        }
+        addLayout(model, layoutService.relayout(previous, room));
         return "layout-result";
     }
+
+    private void addLayout(Model model, RoomLayout layout) {
+        model.addAttribute("layout", layout);
+        // drawn at DEFAULT_SCALE pixels per meter; cached by layout content, so repeated views skip drawing
+        model.addAttribute("svg", imageRenderer.svgMarkup(layout, LayoutImageRenderer.DEFAULT_SCALE));
+    }
 }
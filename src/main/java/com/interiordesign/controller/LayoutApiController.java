@@ -0,0 +1,165 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.RankedLayout;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import com.interiordesign.service.BatchLayoutService;
+import com.interiordesign.service.LayoutService;
+import com.interiordesign.web.LayoutJsonWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON endpoints for programmatic clients (partner integrations, frontends).
+ * Layouts are returned in the compact form written by LayoutJsonWriter.
+ */
+@RestController
+@RequestMapping("/api/layouts")
+public class LayoutApiController {
+
+    private final LayoutService layoutService;
+    private final BatchLayoutService batchLayoutService;
+    private final LayoutJsonWriter jsonWriter;
+    private final Validator validator;
+    private final int maxBatchRooms;
+    private final int maxAlternatives;
+
+    public LayoutApiController(LayoutService layoutService, BatchLayoutService batchLayoutService,
+                               LayoutJsonWriter jsonWriter, Validator validator,
+                               @Value("${layout.batch.max-rooms:10000}") int maxBatchRooms,
+                               @Value("${layout.alternatives.max-k:10}") int maxAlternatives) {
+        this.layoutService = layoutService;
+        this.batchLayoutService = batchLayoutService;
+        this.jsonWriter = jsonWriter;
+        this.validator = validator;
+        this.maxBatchRooms = maxBatchRooms;
+        this.maxAlternatives = maxAlternatives;
+    }
+
+    /**
+     * Single layout as compact JSON; no server-side template rendering.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> layout(@Valid @RequestBody Room room, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return errors(HttpStatus.BAD_REQUEST, messages(bindingResult));
+        }
+        RoomLayout layout = layoutService.createLayout(room);
+        return json(out -> jsonWriter.writeLayout(out, layout));
+    }
+
+    /**
+     * The k best distinct layouts for one room, ranked by score, in place of
+     * resubmitting until a layout is liked. Each has its own id.
+     */
+    @PostMapping(value = "/alternatives", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> alternatives(@Valid @RequestBody Room room,
+                                                              BindingResult bindingResult,
+                                                              @RequestParam(value = "k", defaultValue = "3") int k) {
+        List<String> errors = messages(bindingResult);
+        if (k < 1 || k > maxAlternatives) {
+            errors.add("k must be between 1 and " + maxAlternatives);
+        }
+        if (!errors.isEmpty()) {
+            return errors(HttpStatus.BAD_REQUEST, errors);
+        }
+        List<RankedLayout> alternatives = layoutService.createAlternatives(room, k);
+        return json(out -> jsonWriter.writeAlternatives(out, alternatives));
+    }
+
+    /**
+     * Previously generated layout by its id (the "id" of a layout response).
+     * Layouts are written asynchronously, so a just-returned id may take a
+     * moment to resolve.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> get(@PathVariable("id") long id) {
+        RoomLayout layout = layoutService.findLayout(id);
+        if (layout == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return json(out -> jsonWriter.writeLayout(out, layout));
+    }
+
+    /**
+     * Re-layout of a previous layout after an edit. The body holds only the
+     * changed fields ({"budget":2700}); missing ones are taken from the
+     * previous layout's room. Placements that still fit are kept and only
+     * the affected rules are re-run. Returns a new layout (with a new id).
+     */
+    @PostMapping(value = "/{id}/relayout", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> relayout(@PathVariable("id") long id, @RequestBody Room changes) {
+        RoomLayout previous = layoutService.findLayout(id);
+        if (previous == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Room base = previous.getRoom();
+        Room room = new Room(changes.getLength() != null ? changes.getLength() : base.getLength(),
+                changes.getWidth() != null ? changes.getWidth() : base.getWidth(),
+                changes.getBudget() != null ? changes.getBudget() : base.getBudget());
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Room> violation : validator.validate(room)) {
+            errors.add(violation.getMessage());
+        }
+        if (!errors.isEmpty()) {
+            return errors(HttpStatus.BAD_REQUEST, errors);
+        }
+        RoomLayout layout = layoutService.relayout(previous, room);
+        return json(out -> jsonWriter.writeLayout(out, layout));
+    }
+
+    /**
+     * Accepts a JSON array of rooms and streams one NDJSON line per room as
+     * soon as its layout is ready (completion order; see "index").
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batch(@RequestBody List<Room> rooms) {
+        if (rooms.size() > maxBatchRooms) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        StreamingResponseBody body = out -> batchLayoutService.streamLayouts(rooms, result -> {
+            jsonWriter.writeBatchLine(out, result);
+            out.flush();
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /** 200 with a body that LayoutJsonWriter streams to the response. */
+    private static ResponseEntity<StreamingResponseBody> json(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> errors(HttpStatus status, List<String> errors) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(out -> jsonWriter.writeErrors(out, errors));
+    }
+
+    private static List<String> messages(BindingResult bindingResult) {
+        List<String> messages = new ArrayList<>();
+        for (ObjectError error : bindingResult.getAllErrors()) {
+            messages.add(error.getDefaultMessage());
+        }
+        return messages;
+    }
+}
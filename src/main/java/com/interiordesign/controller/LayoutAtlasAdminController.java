@@ -0,0 +1,36 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.service.LayoutAtlas;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin view of the precomputed layout atlas.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/layout-atlas")
+public class LayoutAtlasAdminController {
+
+    private final LayoutAtlas layoutAtlas;
+
+    public LayoutAtlasAdminController(LayoutAtlas layoutAtlas) {
+        this.layoutAtlas = layoutAtlas;
+    }
+
+    @GetMapping
+    public LayoutAtlas.Stats stats() {
+        return layoutAtlas.getStats();
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<LayoutAtlas.Stats> rebuild() {
+        HttpStatus status = layoutAtlas.rebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(layoutAtlas.getStats());
+    }
+}
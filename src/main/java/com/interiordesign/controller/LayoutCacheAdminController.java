@@ -0,0 +1,35 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.service.LayoutCache;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin view of the layout result cache.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/layout-cache")
+public class LayoutCacheAdminController {
+
+    private final LayoutCache layoutCache;
+
+    public LayoutCacheAdminController(LayoutCache layoutCache) {
+        this.layoutCache = layoutCache;
+    }
+
+    @GetMapping
+    public LayoutCache.Stats stats() {
+        return layoutCache.getStats();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        layoutCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.RoomLayout;
+import com.interiordesign.service.LayoutService;
+import com.interiordesign.web.LayoutImageRenderer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+/**
+ * Saved designs as images, for thumbnails and shared links:
+ * /layout/{id}.svg and /layout/{id}.png, optional ?scale= (pixels per meter).
+ * Responses carry a strong ETag; a matching If-None-Match gets 304 without
+ * rendering.
+ */
+@RestController
+public class LayoutImageController {
+
+    private final LayoutService layoutService;
+    private final LayoutImageRenderer renderer;
+
+    public LayoutImageController(LayoutService layoutService, LayoutImageRenderer renderer) {
+        this.layoutService = layoutService;
+        this.renderer = renderer;
+    }
+
+    @GetMapping("/layout/{id:\\d+}.svg")
+    public ResponseEntity<byte[]> svg(@PathVariable("id") long id,
+                                      @RequestParam(value = "scale", defaultValue = "60") int scale,
+                                      WebRequest request) {
+        return image(id, LayoutImageRenderer.Format.SVG, scale, request);
+    }
+
+    @GetMapping("/layout/{id:\\d+}.png")
+    public ResponseEntity<byte[]> png(@PathVariable("id") long id,
+                                      @RequestParam(value = "scale", defaultValue = "60") int scale,
+                                      WebRequest request) {
+        return image(id, LayoutImageRenderer.Format.PNG, scale, request);
+    }
+
+    private ResponseEntity<byte[]> image(long id, LayoutImageRenderer.Format format, int scale,
+                                         WebRequest request) {
+        RoomLayout layout = layoutService.findLayout(id);
+        if (layout == null) {
+            return ResponseEntity.notFound().build();
+        }
+        int clamped = LayoutImageRenderer.clampScale(scale);
+        String etag = renderer.etag(layout, format, clamped);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        // saved designs never change; clients revalidate with the ETag after an hour
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .body(renderer.render(layout, format, clamped));
+    }
+}
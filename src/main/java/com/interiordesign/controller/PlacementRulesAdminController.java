@@ -0,0 +1,42 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.service.PlacementRulesService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin view and reload of the placement rules.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/layout-rules")
+public class PlacementRulesAdminController {
+
+    private final PlacementRulesService rulesService;
+
+    public PlacementRulesAdminController(PlacementRulesService rulesService) {
+        this.rulesService = rulesService;
+    }
+
+    @GetMapping
+    public PlacementRulesService.Stats stats() {
+        return rulesService.getStats();
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            rulesService.reload();
+            return ResponseEntity.ok(rulesService.getStats());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of(e.getMessage())));
+        }
+    }
+}
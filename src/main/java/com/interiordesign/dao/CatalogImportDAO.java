@@ -0,0 +1,151 @@
+package com.interiordesign.dao;
+
+import com.interiordesign.model.CatalogImportJob;
+import com.interiordesign.model.Furniture;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Bookkeeping and staging tables of the bulk catalog import.
+ */
+@Repository
+public class CatalogImportDAO {
+
+    private static final String SELECT_JOB = "SELECT id, source, format, mode, status, records_read, rows_staged,"
+            + " rows_rejected, error, started_at, updated_at FROM catalog_import_job";
+
+    // last staged row per name and category, merged into furniture by that key
+    private static final String MERGE_LATEST = "MERGE INTO furniture f USING (SELECT name, width, depth, price,"
+            + " category, seq FROM furniture_import i WHERE i.job_id = ? AND i.seq = (SELECT MAX(j.seq)"
+            + " FROM furniture_import j WHERE j.job_id = i.job_id AND j.name = i.name AND j.category = i.category)"
+            + " ORDER BY seq) s ON (f.name = s.name AND f.category = s.category)"
+            + " WHEN MATCHED THEN UPDATE SET width = s.width, depth = s.depth, price = s.price"
+            + " WHEN NOT MATCHED THEN INSERT (name, width, depth, price, category)"
+            + " VALUES (s.name, s.width, s.depth, s.price, s.category)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogImportDAO(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<CatalogImportJob> jobRowMapper = (rs, rowNum) -> {
+        CatalogImportJob job = new CatalogImportJob();
+        job.setId(rs.getLong("id"));
+        job.setSource(rs.getString("source"));
+        job.setFormat(CatalogImportJob.Format.valueOf(rs.getString("format")));
+        job.setMode(CatalogImportJob.Mode.valueOf(rs.getString("mode")));
+        job.setStatus(CatalogImportJob.Status.valueOf(rs.getString("status")));
+        job.setRecordsRead(rs.getLong("records_read"));
+        job.setRowsStaged(rs.getLong("rows_staged"));
+        job.setRowsRejected(rs.getLong("rows_rejected"));
+        job.setError(rs.getString("error"));
+        job.setStartedAt(rs.getTimestamp("started_at").toInstant());
+        job.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+        return job;
+    };
+
+    public long createJob(String source, CatalogImportJob.Format format, CatalogImportJob.Mode mode) {
+        String sql = "INSERT INTO catalog_import_job (source, format, mode, status, records_read, rows_staged,"
+                + " rows_rejected, started_at, updated_at) VALUES (?, ?, ?, ?, 0, 0, 0, ?, ?)";
+        KeyHolder keys = new GeneratedKeyHolder();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, source);
+            ps.setString(2, format.name());
+            ps.setString(3, mode.name());
+            ps.setString(4, CatalogImportJob.Status.RUNNING.name());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public CatalogImportJob findJob(long id) {
+        List<CatalogImportJob> list = jdbcTemplate.query(SELECT_JOB + " WHERE id = ?", jobRowMapper, id);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    public List<CatalogImportJob> findRecentJobs(int limit) {
+        return jdbcTemplate.query(SELECT_JOB + " ORDER BY id DESC LIMIT ?", jobRowMapper, limit);
+    }
+
+    /**
+     * Insert validated rows with consecutive seq numbers starting at firstSeq,
+     * as one JDBC batch.
+     */
+    public void stageRows(long jobId, long firstSeq, List<Furniture> rows) {
+        String sql = "INSERT INTO furniture_import (job_id, seq, name, width, depth, price, category)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Furniture f = rows.get(i);
+                ps.setLong(1, jobId);
+                ps.setLong(2, firstSeq + i);
+                ps.setString(3, f.getName());
+                ps.setDouble(4, f.getWidth());
+                ps.setDouble(5, f.getDepth());
+                ps.setInt(6, f.getPrice());
+                ps.setString(7, f.getCategory());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /** Record progress; call in the same transaction as stageRows. */
+    public void checkpoint(long jobId, long recordsRead, long rowsStaged, long rowsRejected) {
+        jdbcTemplate.update("UPDATE catalog_import_job SET records_read = ?, rows_staged = ?, rows_rejected = ?,"
+                        + " updated_at = CURRENT_TIMESTAMP WHERE id = ?",
+                recordsRead, rowsStaged, rowsRejected, jobId);
+    }
+
+    public void updateStatus(long jobId, CatalogImportJob.Status status, String error) {
+        jdbcTemplate.update("UPDATE catalog_import_job SET status = ?, error = ?, updated_at = CURRENT_TIMESTAMP"
+                + " WHERE id = ?", status.name(), error, jobId);
+    }
+
+    /**
+     * Copy a job's staged rows into furniture and drop them from staging.
+     * APPEND inserts every row (in seq order). REPLACE matches rows by name
+     * and category: matching items are updated in place and keep their id
+     * (which layout history, relayouts and API clients refer to), new ones
+     * are inserted and items missing from the feed are deleted; of repeated
+     * rows in the feed the last one wins. Returns the number of furniture
+     * rows inserted or updated. Callers run this in a transaction together
+     * with the catalog version bump.
+     */
+    public int publish(long jobId, CatalogImportJob.Mode mode) {
+        int published;
+        if (mode == CatalogImportJob.Mode.REPLACE) {
+            jdbcTemplate.update("DELETE FROM furniture f WHERE NOT EXISTS (SELECT 1 FROM furniture_import i"
+                    + " WHERE i.job_id = ? AND i.name = f.name AND i.category = f.category)", jobId);
+            // the feed has one item per name and category; keep the oldest id of earlier duplicates
+            jdbcTemplate.update("DELETE FROM furniture f WHERE EXISTS (SELECT 1 FROM furniture g"
+                    + " WHERE g.name = f.name AND g.category = f.category AND g.id < f.id)");
+            published = jdbcTemplate.update(MERGE_LATEST, jobId);
+        } else {
+            published = jdbcTemplate.update("INSERT INTO furniture (name, width, depth, price, category)"
+                    + " SELECT name, width, depth, price, category FROM furniture_import WHERE job_id = ? ORDER BY seq",
+                    jobId);
+        }
+        jdbcTemplate.update("DELETE FROM furniture_import WHERE job_id = ?", jobId);
+        return published;
+    }
+}
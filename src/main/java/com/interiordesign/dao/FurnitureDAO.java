@@ -1,22 +1,49 @@
 package com.interiordesign.dao;
 
 import com.interiordesign.model.Furniture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Simple DAO using JdbcTemplate to read furniture data.
+ * Simple DAO using JdbcTemplate to read and write furniture data.
+ *
+ * Filtered queries push budget and room bounds into SQL (backed by the
+ * category indexes in schema.sql) and read rows with a bounded fetch size,
+ * stopping after the requested number of items. Writes are JDBC batches;
+ * callers run them in a transaction together with bumpCatalogVersion.
  */
 @Repository
 public class FurnitureDAO {
 
+    private static final String SELECT = "SELECT id, name, width, depth, price, category FROM furniture";
+    private static final String AFFORDABLE_FITTING = SELECT
+            + " WHERE category = ? AND price <= ? AND width <= ? AND depth <= ? ORDER BY price, id";
+
     private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
 
     public FurnitureDAO(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, 500);
+    }
+
+    @Autowired
+    public FurnitureDAO(JdbcTemplate jdbcTemplate, @Value("${catalog.query.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = Math.max(1, fetchSize);
     }
 
     private final RowMapper<Furniture> furnitureRowMapper = (rs, rowNum) -> {
@@ -31,18 +58,169 @@ public class FurnitureDAO {
     };
 
     public List<Furniture> findAll() {
-        String sql = "SELECT id, name, width, depth, price, category FROM furniture ORDER BY id";
-        return jdbcTemplate.query(sql, furnitureRowMapper);
+        String sql = SELECT + " ORDER BY id";
+        return jdbcTemplate.query(statement(sql, fetchSize, 0), furnitureRowMapper);
     }
 
+    /**
+     * Cheapest item of the category, or null.
+     */
     public Furniture findByCategory(String category) {
-        String sql = "SELECT id, name, width, depth, price, category FROM furniture WHERE category = ? LIMIT 1";
+        String sql = SELECT + " WHERE category = ? ORDER BY price, id LIMIT 1";
         List<Furniture> list = jdbcTemplate.query(sql, furnitureRowMapper, category);
         return list.isEmpty() ? null : list.get(0);
     }
 
+    /**
+     * Cheapest item of the category priced at most maxPrice whose catalog
+     * footprint fits a maxWidth x maxDepth box, or null.
+     */
+    public Furniture findCheapestFitting(String category, int maxPrice, double maxWidth, double maxDepth) {
+        List<Furniture> list = findAffordableFitting(category, maxPrice, maxWidth, maxDepth, 1);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * Up to limit items of the category priced at most maxPrice whose
+     * catalog footprint fits a maxWidth x maxDepth box, cheapest first.
+     * Rows are streamed and reading stops once limit items are collected.
+     */
+    public List<Furniture> findAffordableFitting(String category, int maxPrice, double maxWidth, double maxDepth,
+                                                 int limit) {
+        if (limit <= 0) return List.of();
+        return jdbcTemplate.query(statement(AFFORDABLE_FITTING, Math.min(fetchSize, limit), limit, ps -> {
+            ps.setString(1, category);
+            ps.setInt(2, maxPrice);
+            ps.setDouble(3, maxWidth);
+            ps.setDouble(4, maxDepth);
+        }), rs -> {
+            List<Furniture> items = new ArrayList<>(Math.min(limit, 64));
+            while (items.size() < limit && rs.next()) {
+                items.add(furnitureRowMapper.mapRow(rs, items.size()));
+            }
+            return items;
+        });
+    }
+
     public List<Furniture> getAllFurniture() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getAllFurniture'");
+        return findAll();
+    }
+
+    /**
+     * Current catalog version; bumped whenever furniture rows change.
+     * Returns 0 if the version row has not been initialized.
+     */
+    public long findCatalogVersion() {
+        String sql = "SELECT version FROM catalog_version WHERE id = 1";
+        List<Long> list = jdbcTemplate.queryForList(sql, Long.class);
+        return list.isEmpty() ? 0L : list.get(0);
+    }
+
+    /**
+     * Increment the catalog version so running instances reload. Call in the
+     * same transaction as the furniture changes it announces.
+     */
+    public void bumpCatalogVersion() {
+        jdbcTemplate.update("UPDATE catalog_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = 1");
+    }
+
+    /**
+     * Insert the items as one batch (their ids are ignored) and return the
+     * generated ids in the same order.
+     */
+    public List<Long> insertAll(List<Furniture> items) {
+        if (items.isEmpty()) return List.of();
+        String sql = "INSERT INTO furniture (name, width, depth, price, category) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keys = new GeneratedKeyHolder();
+        BatchPreparedStatementSetter values = new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setItem(ps, items.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        };
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[] {"id"}), values, keys);
+        List<Long> ids = new ArrayList<>(items.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Update the items by id as one batch. Returns the ids that matched no row.
+     */
+    public List<Long> updateAll(List<Furniture> items) {
+        if (items.isEmpty()) return List.of();
+        String sql = "UPDATE furniture SET name = ?, width = ?, depth = ?, price = ?, category = ? WHERE id = ?";
+        int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setItem(ps, items.get(i));
+                ps.setLong(6, items.get(i).getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) missing.add(items.get(i).getId());
+        }
+        return missing;
+    }
+
+    /**
+     * Delete the items with the given ids as one batch. Returns the ids that
+     * matched no row.
+     */
+    public List<Long> deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        String sql = "DELETE FROM furniture WHERE id = ?";
+        int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) missing.add(ids.get(i));
+        }
+        return missing;
+    }
+
+    private static void setItem(PreparedStatement ps, Furniture f) throws SQLException {
+        ps.setString(1, f.getName());
+        ps.setDouble(2, f.getWidth());
+        ps.setDouble(3, f.getDepth());
+        ps.setInt(4, f.getPrice());
+        ps.setString(5, f.getCategory());
+    }
+
+    private static PreparedStatementCreator statement(String sql, int fetchSize, int maxRows) {
+        return statement(sql, fetchSize, maxRows, ps -> { });
+    }
+
+    private static PreparedStatementCreator statement(String sql, int fetchSize, int maxRows,
+                                                      PreparedStatementSetter params) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (maxRows > 0) ps.setMaxRows(maxRows);
+            params.setValues(ps);
+            return ps;
+        };
     }
 }
@@ -0,0 +1,150 @@
+package com.interiordesign.dao;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.LayoutHistoryEntry;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout history tables (layout_history, layout_placement). Inserts use
+ * multi-row VALUES lists so a batch of layouts costs a handful of statements.
+ */
+@Repository
+public class LayoutHistoryDAO {
+
+    /** Ids handed out per nextIdBlock call; matches the sequence increment in schema.sql. */
+    public static final int ID_BLOCK_SIZE = 100;
+
+    // rows per INSERT statement; keeps parameter counts well below driver limits
+    private static final int ROWS_PER_STATEMENT = 200;
+
+    private static final String INSERT_LAYOUT = "INSERT INTO layout_history (id, room_length, room_width, budget,"
+            + " role, total_cost, remaining_budget, catalog_version, errors, created_at) VALUES ";
+    private static final String LAYOUT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PLACEMENT = "INSERT INTO layout_placement (layout_id, seq, furniture_id, name,"
+            + " category, width, depth, price, x, y, rotated) VALUES ";
+    private static final String PLACEMENT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LayoutHistoryDAO(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * First id of a fresh block of ID_BLOCK_SIZE ids.
+     */
+    public long nextIdBlock() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR layout_history_seq", Long.class);
+    }
+
+    /**
+     * Insert the layouts and their placements. Callers wrap this in a
+     * transaction so a layout is never visible without its placements.
+     */
+    public void insert(List<LayoutHistoryEntry> entries) {
+        List<Object> args = new ArrayList<>();
+        int rows = 0;
+        for (LayoutHistoryEntry e : entries) {
+            RoomLayout layout = e.getLayout();
+            Room room = layout.getRoom();
+            args.add(e.getId());
+            args.add(room.getLength());
+            args.add(room.getWidth());
+            args.add(room.getBudget());
+            args.add(layout.getRole());
+            args.add(layout.getTotalCost());
+            args.add(layout.getRemainingBudget());
+            args.add(e.getCatalogVersion());
+            args.add(layout.getErrors().isEmpty() ? null : truncate(String.join("\n", layout.getErrors()), 2000));
+            args.add(Timestamp.from(e.getCreatedAt()));
+            if (++rows == ROWS_PER_STATEMENT) {
+                insertRows(INSERT_LAYOUT, LAYOUT_ROW, rows, args);
+                rows = 0;
+            }
+        }
+        insertRows(INSERT_LAYOUT, LAYOUT_ROW, rows, args);
+        rows = 0;
+
+        for (LayoutHistoryEntry e : entries) {
+            int seq = 0;
+            for (FurniturePosition p : e.getLayout().getPlaced()) {
+                Furniture f = p.getFurniture();
+                args.add(e.getId());
+                args.add(seq++);
+                args.add(f.getId());
+                args.add(f.getName());
+                args.add(f.getCategory());
+                args.add(f.getWidth());
+                args.add(f.getDepth());
+                args.add(f.getPrice());
+                args.add(p.getX());
+                args.add(p.getY());
+                args.add(p.isRotated());
+                if (++rows == ROWS_PER_STATEMENT) {
+                    insertRows(INSERT_PLACEMENT, PLACEMENT_ROW, rows, args);
+                    rows = 0;
+                }
+            }
+        }
+        insertRows(INSERT_PLACEMENT, PLACEMENT_ROW, rows, args);
+    }
+
+    /**
+     * Stored layout with its placements (in original order), or null.
+     * Placed furniture is rebuilt from the stored values, so the result does
+     * not depend on the current catalog.
+     */
+    public RoomLayout find(long id) {
+        List<RoomLayout> found = jdbcTemplate.query("SELECT id, room_length, room_width, budget, role, total_cost,"
+                + " remaining_budget, errors FROM layout_history WHERE id = ?", (rs, rowNum) -> {
+            RoomLayout layout = new RoomLayout();
+            layout.setId(rs.getLong("id"));
+            layout.setRoom(new Room(rs.getDouble("room_length"), rs.getDouble("room_width"), rs.getInt("budget")));
+            layout.setRole(rs.getString("role"));
+            layout.setTotalCost(rs.getInt("total_cost"));
+            layout.setRemainingBudget(rs.getInt("remaining_budget"));
+            String errors = rs.getString("errors");
+            if (errors != null) {
+                for (String e : errors.split("\n")) {
+                    layout.addError(e);
+                }
+            }
+            return layout;
+        }, id);
+        if (found.isEmpty()) return null;
+
+        RoomLayout layout = found.get(0);
+        layout.setPlaced(jdbcTemplate.query("SELECT furniture_id, name, category, width, depth, price, x, y, rotated"
+                + " FROM layout_placement WHERE layout_id = ? ORDER BY seq", (rs, rowNum) -> {
+            long furnitureId = rs.getLong("furniture_id");
+            Furniture f = new Furniture(rs.wasNull() ? null : furnitureId, rs.getString("name"),
+                    rs.getDouble("width"), rs.getDouble("depth"), rs.getInt("price"), rs.getString("category"));
+            return new FurniturePosition(f, rs.getDouble("x"), rs.getDouble("y"), rs.getBoolean("rotated"));
+        }, id));
+        return layout;
+    }
+
+    /** One multi-row INSERT of the given number of rows, whose values are in args; clears args. */
+    private void insertRows(String insert, String row, int rows, List<Object> args) {
+        if (rows == 0) return;
+        StringBuilder sql = new StringBuilder(insert.length() + rows * (row.length() + 2)).append(insert);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(row);
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+        args.clear();
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
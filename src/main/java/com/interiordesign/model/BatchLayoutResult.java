@@ -0,0 +1,42 @@
+package com.interiordesign.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One NDJSON line of a batch layout response. index is the position of the
+ * room in the request; results are streamed in completion order.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchLayoutResult {
+    private final int index;
+    private final RoomLayout layout;
+    private final List<String> errors;
+
+    private BatchLayoutResult(int index, RoomLayout layout, List<String> errors) {
+        this.index = index;
+        this.layout = layout;
+        this.errors = errors;
+    }
+
+    public static BatchLayoutResult success(int index, RoomLayout layout) {
+        return new BatchLayoutResult(index, layout, null);
+    }
+
+    public static BatchLayoutResult failure(int index, List<String> errors) {
+        return new BatchLayoutResult(index, null, errors);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public RoomLayout getLayout() {
+        return layout;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
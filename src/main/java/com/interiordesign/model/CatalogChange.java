@@ -0,0 +1,34 @@
+package com.interiordesign.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of catalog edits applied as one new catalog version: upserts
+ * without an id are new items, upserts with an id replace that item, and
+ * deletes are item ids.
+ */
+public class CatalogChange {
+    private List<Furniture> upserts = new ArrayList<>();
+    private List<Long> deletes = new ArrayList<>();
+
+    public List<Furniture> getUpserts() {
+        return upserts;
+    }
+
+    public void setUpserts(List<Furniture> upserts) {
+        this.upserts = upserts != null ? upserts : new ArrayList<>();
+    }
+
+    public List<Long> getDeletes() {
+        return deletes;
+    }
+
+    public void setDeletes(List<Long> deletes) {
+        this.deletes = deletes != null ? deletes : new ArrayList<>();
+    }
+
+    public int size() {
+        return upserts.size() + deletes.size();
+    }
+}
@@ -0,0 +1,118 @@
+package com.interiordesign.model;
+
+import java.time.Instant;
+
+/**
+ * Progress of one bulk catalog import (table catalog_import_job).
+ * recordsRead is the resume checkpoint: records of the source already
+ * validated and committed, whether staged or rejected.
+ */
+public class CatalogImportJob {
+
+    public enum Format { CSV, JSONL }
+
+    /** REPLACE swaps the whole catalog for the feed; APPEND adds to it. */
+    public enum Mode { REPLACE, APPEND }
+
+    public enum Status { RUNNING, FAILED, COMPLETED }
+
+    private long id;
+    private String source;
+    private Format format;
+    private Mode mode;
+    private Status status;
+    private long recordsRead;
+    private long rowsStaged;
+    private long rowsRejected;
+    private String error;
+    private Instant startedAt;
+    private Instant updatedAt;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public void setRecordsRead(long recordsRead) {
+        this.recordsRead = recordsRead;
+    }
+
+    public long getRowsStaged() {
+        return rowsStaged;
+    }
+
+    public void setRowsStaged(long rowsStaged) {
+        this.rowsStaged = rowsStaged;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
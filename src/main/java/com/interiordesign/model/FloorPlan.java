@@ -0,0 +1,47 @@
+package com.interiordesign.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Floor plan request: several rooms furnished from one total budget.
+ */
+public class FloorPlan {
+
+    @NotNull(message = "Budget is required")
+    @Min(value = 500, message = "Budget must be at least $500")
+    @Max(value = 100000, message = "Budget must be at most $100000")
+    private Integer budget;
+
+    @NotEmpty(message = "At least one room is required")
+    private List<@NotNull(message = "Room is required") @Valid FloorPlanRoom> rooms = new ArrayList<>();
+
+    public FloorPlan() {}
+
+    public FloorPlan(Integer budget, List<FloorPlanRoom> rooms) {
+        this.budget = budget;
+        this.rooms = rooms;
+    }
+
+    public Integer getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Integer budget) {
+        this.budget = budget;
+    }
+
+    public List<FloorPlanRoom> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<FloorPlanRoom> rooms) {
+        this.rooms = rooms != null ? rooms : new ArrayList<>();
+    }
+}
@@ -0,0 +1,77 @@
+package com.interiordesign.model;
+
+import java.util.List;
+
+/**
+ * Result of a floor plan: one layout per room, in request order, each
+ * laid out with the share of the budget it was given.
+ */
+public class FloorPlanLayout {
+    private final int budget;
+    private final int totalCost;
+    private final int rounds;
+    private final List<Entry> rooms;
+    private final List<String> errors;
+
+    public FloorPlanLayout(int budget, int totalCost, int rounds, List<Entry> rooms, List<String> errors) {
+        this.budget = budget;
+        this.totalCost = totalCost;
+        this.rounds = rounds;
+        this.rooms = rooms;
+        this.errors = errors;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getTotalCost() {
+        return totalCost;
+    }
+
+    public int getRemainingBudget() {
+        return Math.max(0, budget - totalCost);
+    }
+
+    /** Rebalancing rounds that changed at least one room. */
+    public int getRounds() {
+        return rounds;
+    }
+
+    public List<Entry> getRooms() {
+        return rooms;
+    }
+
+    /** Plan-wide problems, e.g. required items costing more than the whole budget. */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * One room of the plan; the layout's room budget is the share allocated
+     * to it.
+     */
+    public static final class Entry {
+        private final String name;
+        private final String role;
+        private final RoomLayout layout;
+
+        public Entry(String name, String role, RoomLayout layout) {
+            this.name = name;
+            this.role = role;
+            this.layout = layout;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public RoomLayout getLayout() {
+            return layout;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.interiordesign.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One room of a floor plan: its size and role (which placement rules
+ * apply, see PlacementRules.forRole). The budget is the plan's.
+ */
+public class FloorPlanRoom {
+
+    private String name;
+
+    @NotBlank(message = "Room role is required")
+    private String role;
+
+    @NotNull(message = "Length is required")
+    @Min(value = 3, message = "Length must be at least 3 meters")
+    @Max(value = 15, message = "Length must be at most 15 meters")
+    private Double length;
+
+    @NotNull(message = "Width is required")
+    @Min(value = 3, message = "Width must be at least 3 meters")
+    @Max(value = 15, message = "Width must be at most 15 meters")
+    private Double width;
+
+    public FloorPlanRoom() {}
+
+    public FloorPlanRoom(String name, String role, Double length, Double width) {
+        this.name = name;
+        this.role = role;
+        this.length = length;
+        this.width = width;
+    }
+
+    /** Display name ("Master bedroom"); optional. */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Double getLength() {
+        return length;
+    }
+
+    public void setLength(Double length) {
+        this.length = length;
+    }
+
+    public Double getWidth() {
+        return width;
+    }
+
+    public void setWidth(Double width) {
+        this.width = width;
+    }
+}
@@ -1,14 +1,25 @@
 package com.interiordesign.model;
 
+/**
+ * A piece of furniture placed in the room. When rotated (90 degrees) the
+ * item's width runs along the Y axis, so getWidth()/getDepth() return the
+ * footprint as placed, not the catalog dimensions.
+ */
 public class FurniturePosition {
     private Furniture furniture;
     private double x;
     private double y;
+    private boolean rotated;
 
     public FurniturePosition(Furniture furniture, double x, double y) {
+        this(furniture, x, y, false);
+    }
+
+    public FurniturePosition(Furniture furniture, double x, double y, boolean rotated) {
         this.furniture = furniture;
         this.x = x;
         this.y = y;
+        this.rotated = rotated;
     }
 
     public Furniture getFurniture() {
@@ -23,16 +34,20 @@ public class FurniturePosition {
         return y;
     }
 
+    public boolean isRotated() {
+        return rotated;
+    }
+
     // JSON-friendly convenience getters
     public String getName() {
         return furniture.getName();
     }
 
     public double getWidth() {
-        return furniture.getWidth();
+        return rotated ? furniture.getDepth() : furniture.getWidth();
     }
 
     public double getDepth() {
-        return furniture.getDepth();
+        return rotated ? furniture.getWidth() : furniture.getDepth();
     }
 }
@@ -0,0 +1,37 @@
+package com.interiordesign.model;
+
+import java.time.Instant;
+
+/**
+ * A generated layout queued for the layout history tables.
+ * The layout must not be modified once the entry is created.
+ */
+public class LayoutHistoryEntry {
+    private final long id;
+    private final RoomLayout layout;
+    private final long catalogVersion;
+    private final Instant createdAt;
+
+    public LayoutHistoryEntry(long id, RoomLayout layout, long catalogVersion, Instant createdAt) {
+        this.id = id;
+        this.layout = layout;
+        this.catalogVersion = catalogVersion;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public RoomLayout getLayout() {
+        return layout;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
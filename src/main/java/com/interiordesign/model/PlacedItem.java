@@ -0,0 +1,67 @@
+package com.interiordesign.model;
+
+/**
+ * Compact projection of a FurniturePosition for API clients: catalog id
+ * instead of the full Furniture, plus the geometry and price as placed.
+ */
+public class PlacedItem {
+    private final Long catalogId;
+    private final String category;
+    private final double x;
+    private final double y;
+    private final double width;
+    private final double depth;
+    private final int price;
+    private final boolean rotated;
+
+    public PlacedItem(Long catalogId, String category, double x, double y, double width, double depth, int price,
+                      boolean rotated) {
+        this.catalogId = catalogId;
+        this.category = category;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.depth = depth;
+        this.price = price;
+        this.rotated = rotated;
+    }
+
+    public static PlacedItem of(FurniturePosition fp) {
+        Furniture f = fp.getFurniture();
+        return new PlacedItem(f.getId(), f.getCategory(), fp.getX(), fp.getY(),
+                fp.getWidth(), fp.getDepth(), f.getPrice(), fp.isRotated());
+    }
+
+    public Long getCatalogId() {
+        return catalogId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getDepth() {
+        return depth;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    /** True if placed at 90 degrees; width/depth are already the placed footprint. */
+    public boolean isRotated() {
+        return rotated;
+    }
+}
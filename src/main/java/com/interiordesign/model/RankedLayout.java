@@ -0,0 +1,30 @@
+package com.interiordesign.model;
+
+/**
+ * One of the alternative layouts for a room, best first (rank 1). score is
+ * the solver's objective: weighted items placed plus the share of the
+ * budget spent, so higher is better.
+ */
+public class RankedLayout {
+    private final int rank;
+    private final double score;
+    private final RoomLayout layout;
+
+    public RankedLayout(int rank, double score, RoomLayout layout) {
+        this.rank = rank;
+        this.score = score;
+        this.layout = layout;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public RoomLayout getLayout() {
+        return layout;
+    }
+}
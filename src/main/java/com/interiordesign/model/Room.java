@@ -10,6 +10,9 @@ import jakarta.validation.constraints.NotNull;
  */
 public class Room {
 
+    public static final int MIN_BUDGET = 500;
+    public static final int MAX_BUDGET = 10000;
+
     @NotNull(message = "Length is required")
     @Min(value = 3, message = "Length must be at least 3 meters")
     @Max(value = 15, message = "Length must be at most 15 meters")
@@ -21,8 +24,8 @@ public class Room {
     private Double width;
 
     @NotNull(message = "Budget is required")
-    @Min(value = 500, message = "Budget must be at least $500")
-    @Max(value = 10000, message = "Budget must be at most $10000")
+    @Min(value = MIN_BUDGET, message = "Budget must be at least $500")
+    @Max(value = MAX_BUDGET, message = "Budget must be at most $10000")
     private Integer budget;
 
     public Room() {}
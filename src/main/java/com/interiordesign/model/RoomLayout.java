@@ -7,7 +7,9 @@ import java.util.List;
  * Container for result layout and cost details.
  */
 public class RoomLayout {
+    private Long id; // layout history id; null if not persisted
     private Room room;
+    private String role; // floor plan room role whose rules were used; null for all rules
     private List<FurniturePosition> placed = new ArrayList<>();
     private int totalCost;
     private int remainingBudget;
@@ -15,6 +17,14 @@ public class RoomLayout {
 
     public RoomLayout() {}
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Room getRoom() {
         return room;
     }
@@ -23,6 +33,14 @@ public class RoomLayout {
         this.room = room;
     }
 
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
     public List<FurniturePosition> getPlaced() {
         return placed;
     }
@@ -59,8 +77,15 @@ public class RoomLayout {
         this.placed = placed;
     }
 
-    public Object getFurniturePositions() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getFurniturePositions'");
+    /**
+     * Compact view of the placed furniture (catalog ids, no Furniture objects),
+     * as returned by the JSON API.
+     */
+    public List<PlacedItem> getFurniturePositions() {
+        List<PlacedItem> items = new ArrayList<>(placed.size());
+        for (FurniturePosition fp : placed) {
+            items.add(PlacedItem.of(fp));
+        }
+        return items;
     }
 }
@@ -0,0 +1,110 @@
+package com.interiordesign.service;
+
+import java.util.Arrays;
+
+/**
+ * Rectangle storage in parallel primitive arrays plus the shared
+ * nearest-free-slot search; subclasses decide how overlap queries are answered.
+ */
+abstract class AbstractOccupancyIndex implements OccupancyIndex {
+
+    private static final double EPS = 1e-6;
+
+    protected final double roomW;
+    protected final double roomH;
+
+    protected double[] xs = new double[8];
+    protected double[] ys = new double[8];
+    protected double[] ws = new double[8];
+    protected double[] ds = new double[8];
+    protected int count;
+
+    AbstractOccupancyIndex(double roomW, double roomH) {
+        this.roomW = roomW;
+        this.roomH = roomH;
+    }
+
+    @Override
+    public void add(double x, double y, double w, double d) {
+        if (count == xs.length) {
+            int n = count * 2;
+            xs = Arrays.copyOf(xs, n);
+            ys = Arrays.copyOf(ys, n);
+            ws = Arrays.copyOf(ws, n);
+            ds = Arrays.copyOf(ds, n);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        ws[count] = w;
+        ds[count] = d;
+        count++;
+    }
+
+    @Override
+    public void removeLast() {
+        if (count > 0) count--;
+    }
+
+    @Override
+    public void clear() {
+        count = 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    protected final boolean intersects(int i, double x, double y, double w, double d) {
+        return !(x + w <= xs[i] || xs[i] + ws[i] <= x || y + d <= ys[i] || ys[i] + ds[i] <= y);
+    }
+
+    /**
+     * Scans grid positions in rings of growing Chebyshev radius around the
+     * snapped start point; stops once a ring can no longer beat the best hit.
+     */
+    @Override
+    public boolean findFreeSlot(double w, double d, double nearX, double nearY,
+                                double step, double maxDistance, double[] out) {
+        double maxX = roomW - w;
+        double maxY = roomH - d;
+        if (maxX < -EPS || maxY < -EPS || step <= 0) return false;
+
+        int cols = (int) Math.floor(maxX / step + EPS);
+        int rows = (int) Math.floor(maxY / step + EPS);
+        int ci = clamp((int) Math.round(nearX / step), 0, cols);
+        int cj = clamp((int) Math.round(nearY / step), 0, rows);
+        int maxRing = Math.max(Math.max(ci, cols - ci), Math.max(cj, rows - cj));
+
+        double best = maxDistance * maxDistance;
+        boolean found = false;
+        for (int r = 0; r <= maxRing; r++) {
+            double ringMin = Math.max(0, (r - 1) * step);
+            if (ringMin * ringMin > best) break;
+            for (int j = cj - r; j <= cj + r; j++) {
+                if (j < 0 || j > rows) continue;
+                boolean edgeRow = j == cj - r || j == cj + r;
+                int di = edgeRow ? 1 : 2 * r;
+                for (int i = ci - r; i <= ci + r; i += Math.max(1, di)) {
+                    if (i < 0 || i > cols) continue;
+                    double x = i * step;
+                    double y = j * step;
+                    double dx = x - nearX;
+                    double dy = y - nearY;
+                    double dist = dx * dx + dy * dy;
+                    if (dist <= best && !overlaps(x, y, w, d)) {
+                        best = dist;
+                        out[0] = x;
+                        out[1] = y;
+                        found = true;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int clamp(int v, int lo, int hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
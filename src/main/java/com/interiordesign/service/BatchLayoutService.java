@@ -0,0 +1,154 @@
+package com.interiordesign.service;
+
+import com.interiordesign.config.VirtualThreads;
+import com.interiordesign.model.BatchLayoutResult;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs LayoutService.createLayout for many rooms concurrently (virtual
+ * threads where available) and hands each result to a sink as soon as it
+ * is ready. At most layout.batch.max-concurrency layouts run at once.
+ *
+ * Every room gets exactly one result, whatever happens to its task: rooms
+ * whose layout throws, or that cannot be started (executor shut down), are
+ * reported as failures, so the caller never waits for a result that cannot
+ * come.
+ */
+@Service
+public class BatchLayoutService {
+
+    /**
+     * Receives results on the calling thread of streamLayouts, one at a time.
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(BatchLayoutResult result) throws IOException;
+    }
+
+    private final LayoutService layoutService;
+    private final Validator validator;
+    private final int maxConcurrency;
+    private final ExecutorService executor = VirtualThreads.newPerTaskExecutor("layout-batch");
+
+    public BatchLayoutService(LayoutService layoutService, Validator validator,
+                              @Value("${layout.batch.max-concurrency:64}") int maxConcurrency) {
+        this.layoutService = layoutService;
+        this.validator = validator;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Blocks until every room has been delivered to the sink. If the sink
+     * throws (e.g. client went away) no further rooms are started.
+     */
+    public void streamLayouts(List<Room> rooms, ResultSink sink) throws IOException {
+        BlockingQueue<BatchLayoutResult> done = new LinkedBlockingQueue<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        try {
+            executor.execute(() -> dispatch(rooms, done, permits, cancelled));
+        } catch (RejectedExecutionException e) {
+            notStarted(rooms, 0, done, cancelled);
+        }
+
+        try {
+            for (int written = 0; written < rooms.size(); written++) {
+                sink.accept(done.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming batch layouts", e);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    /** Start one task per room, at most maxConcurrency at a time, until done or cancelled. */
+    private void dispatch(List<Room> rooms, BlockingQueue<BatchLayoutResult> done, Semaphore permits,
+                          AtomicBoolean cancelled) {
+        int next = 0;
+        try {
+            while (next < rooms.size()) {
+                permits.acquireUninterruptibly();
+                if (cancelled.get()) {
+                    permits.release();
+                    return;
+                }
+                int index = next;
+                Room room = rooms.get(index);
+                try {
+                    executor.execute(() -> run(index, room, done, permits));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    return;
+                }
+                next++;
+            }
+        } finally {
+            notStarted(rooms, next, done, cancelled);
+        }
+    }
+
+    /** Lay out one room; its result is delivered even if the layout throws an Error. */
+    private void run(int index, Room room, BlockingQueue<BatchLayoutResult> done, Semaphore permits) {
+        BatchLayoutResult result = null;
+        try {
+            result = layout(index, room);
+        } finally {
+            permits.release();
+            done.add(result != null ? result
+                    : BatchLayoutResult.failure(index, List.of("Layout generation failed")));
+        }
+    }
+
+    /** Failures for the rooms from index on, unless the caller has stopped reading. */
+    private static void notStarted(List<Room> rooms, int from, BlockingQueue<BatchLayoutResult> done,
+                                   AtomicBoolean cancelled) {
+        for (int i = from; i < rooms.size() && !cancelled.get(); i++) {
+            done.add(BatchLayoutResult.failure(i, List.of("Layout not started: server is shutting down")));
+        }
+    }
+
+    private BatchLayoutResult layout(int index, Room room) {
+        if (room == null) {
+            return BatchLayoutResult.failure(index, List.of("Room is required"));
+        }
+        Set<ConstraintViolation<Room>> violations = validator.validate(room);
+        if (!violations.isEmpty()) {
+            List<String> errors = new ArrayList<>();
+            for (ConstraintViolation<Room> v : violations) {
+                errors.add(v.getMessage());
+            }
+            return BatchLayoutResult.failure(index, errors);
+        }
+        try {
+            RoomLayout layout = layoutService.createLayout(room);
+            return BatchLayoutResult.success(index, layout);
+        } catch (RuntimeException e) {
+            return BatchLayoutResult.failure(index, List.of("Layout generation failed: " + e.getMessage()));
+        }
+    }
+}
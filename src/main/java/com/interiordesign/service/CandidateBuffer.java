@@ -0,0 +1,36 @@
+package com.interiordesign.service;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of candidate placements (top-left x/y, rotation, preference
+ * score) for one item. Owned by a PlacementWorkspace, so generating and
+ * scoring candidates does not allocate.
+ */
+final class CandidateBuffer {
+
+    double[] x = new double[64];
+    double[] y = new double[64];
+    boolean[] rotated = new boolean[64];
+    double[] score = new double[64];
+    int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(double cx, double cy, boolean rot, double s) {
+        if (size == x.length) {
+            int n = size * 2;
+            x = Arrays.copyOf(x, n);
+            y = Arrays.copyOf(y, n);
+            rotated = Arrays.copyOf(rotated, n);
+            score = Arrays.copyOf(score, n);
+        }
+        x[size] = cx;
+        y[size] = cy;
+        rotated[size] = rot;
+        score[size] = s;
+        size++;
+    }
+}
@@ -0,0 +1,13 @@
+package com.interiordesign.service;
+
+/**
+ * Thrown when catalog items are read at a version that a catalog write has
+ * since replaced, e.g. one chosen earlier as a layout cache key. Retry at
+ * the new version.
+ */
+public class CatalogChangedException extends RuntimeException {
+
+    public CatalogChangedException(long expectedVersion, long actualVersion) {
+        super("Catalog version changed from " + expectedVersion + " to " + actualVersion + "");
+    }
+}
@@ -0,0 +1,34 @@
+package com.interiordesign.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the per-room catalog queries of catalog.source=database,
+ * including the wait for a DatabaseBulkhead slot.
+ */
+@Name("com.interiordesign.CatalogFetch")
+@Label("Catalog Fetch")
+@Category({"Interior Design", "Catalog"})
+@Description("Per-room catalog queries for one layout")
+@StackTrace(false)
+final class CatalogFetchEvent extends jdk.jfr.Event {
+
+    static final String OK = "ok";
+    static final String CHANGED = "changed"; // catalog version moved on, retried
+    static final String BUSY = "busy";       // no bulkhead slot, snapshot used instead
+    static final String FAILED = "failed";
+
+    @Label("Catalog Version")
+    long version;
+
+    @Label("Items")
+    @Description("Catalog items returned across all categories")
+    int items;
+
+    @Label("Outcome")
+    String outcome;
+}
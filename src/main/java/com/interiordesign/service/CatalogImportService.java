@@ -0,0 +1,434 @@
+package com.interiordesign.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interiordesign.dao.CatalogImportDAO;
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.CatalogImportJob;
+import com.interiordesign.model.Furniture;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads vendor catalog feeds (CSV with a header row, or JSON lines; either
+ * optionally gzipped) from catalog.import.directory into the furniture table.
+ *
+ * Records are streamed, validated one by one and written to a staging table
+ * in JDBC batches of catalog.import.chunk-size, each committed together with
+ * the job's progress. Invalid records are counted and skipped. When the feed
+ * has been read, staged rows are copied into furniture and the catalog
+ * version is bumped in one transaction, so layouts keep using the old catalog
+ * until then. A failed import can be resumed from its last committed chunk.
+ *
+ * Imports run one at a time on a background thread.
+ */
+@Lazy
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    static final double MAX_DIMENSION = 15.0; // meters; largest room side
+    static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_LOGGED_REJECTS = 20;
+    private static final long PROGRESS_EVERY = 100_000;
+
+    private static final int NAME = 0;
+    private static final int WIDTH = 1;
+    private static final int DEPTH = 2;
+    private static final int PRICE = 3;
+    private static final int CATEGORY = 4;
+    private static final List<String> FIELDS = List.of("name", "width", "depth", "price", "category");
+
+    private final CatalogImportDAO importDAO;
+    private final FurnitureDAO furnitureDAO;
+    private final CatalogService catalogService;
+    private final RuleEngine ruleEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final Path directory;
+    private final int chunkSize;
+    private final AtomicLong activeJob = new AtomicLong();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-import");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CatalogImportService(CatalogImportDAO importDAO, FurnitureDAO furnitureDAO,
+                                CatalogService catalogService, RuleEngine ruleEngine,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${catalog.import.directory:imports}") String directory,
+                                @Value("${catalog.import.chunk-size:5000}") int chunkSize) {
+        this.importDAO = importDAO;
+        this.furnitureDAO = furnitureDAO;
+        this.catalogService = catalogService;
+        this.ruleEngine = ruleEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start importing the given file (relative to catalog.import.directory).
+     * A null format is inferred from the file name.
+     *
+     * @throws IllegalArgumentException if the file is outside the import directory or missing
+     * @throws IllegalStateException if another import is running
+     */
+    public CatalogImportJob start(String file, CatalogImportJob.Format format, CatalogImportJob.Mode mode) {
+        Path path = resolve(file);
+        CatalogImportJob.Format resolvedFormat = format != null ? format : formatOf(path);
+        claim();
+        try {
+            long jobId = importDAO.createJob(directory.relativize(path).toString(), resolvedFormat, mode);
+            submit(importDAO.findJob(jobId), path);
+            return importDAO.findJob(jobId);
+        } catch (RuntimeException e) {
+            activeJob.set(0);
+            throw e;
+        }
+    }
+
+    /**
+     * Continue a failed (or interrupted) import after its last committed chunk.
+     * Returns null if there is no such job.
+     *
+     * @throws IllegalStateException if the job already completed or an import is running
+     */
+    public CatalogImportJob resume(long jobId) {
+        CatalogImportJob job = importDAO.findJob(jobId);
+        if (job == null) return null;
+        if (job.getStatus() == CatalogImportJob.Status.COMPLETED) {
+            throw new IllegalStateException("Import " + jobId + " already completed");
+        }
+        Path path = resolve(job.getSource());
+        claim();
+        try {
+            importDAO.updateStatus(jobId, CatalogImportJob.Status.RUNNING, null);
+            submit(importDAO.findJob(jobId), path);
+            return importDAO.findJob(jobId);
+        } catch (RuntimeException e) {
+            activeJob.set(0);
+            throw e;
+        }
+    }
+
+    public CatalogImportJob find(long jobId) {
+        return importDAO.findJob(jobId);
+    }
+
+    public List<CatalogImportJob> recent(int limit) {
+        return importDAO.findRecentJobs(limit);
+    }
+
+    private void claim() {
+        if (!activeJob.compareAndSet(0, -1)) {
+            throw new IllegalStateException("Another catalog import is running (job " + activeJob.get() + ")");
+        }
+    }
+
+    private void submit(CatalogImportJob job, Path path) {
+        activeJob.set(job.getId());
+        executor.execute(() -> {
+            boolean completed = false;
+            try {
+                run(job, path);
+                completed = true;
+            } catch (Throwable e) {
+                // Errors too, so the job is never left RUNNING
+                log.error("Catalog import {} failed after {} records", job.getId(), job.getRecordsRead(), e);
+                importDAO.updateStatus(job.getId(), CatalogImportJob.Status.FAILED,
+                        truncate(String.valueOf(e.getMessage())));
+                if (e instanceof Error) throw (Error) e;
+            } finally {
+                activeJob.set(0);
+            }
+            if (completed) {
+                // pick up the new catalog now rather than at the next poll
+                catalogService.refreshIfStale();
+            }
+        });
+    }
+
+    /**
+     * Stream the feed, skipping records already committed by an earlier run.
+     * Progress counters are kept on the job object.
+     */
+    private void run(CatalogImportJob job, Path path) throws IOException {
+        long started = System.nanoTime();
+        long skip = job.getRecordsRead();
+        List<Furniture> chunk = new ArrayList<>(chunkSize);
+        String[] fields = new String[FIELDS.size()];
+        // categories the placement rules know when the job starts; anything else is never placed
+        Set<String> categories = Set.copyOf(ruleEngine.rules().getCategories());
+        long read = skip;
+        long staged = job.getRowsStaged();
+        long rejected = job.getRowsRejected();
+        int pending = 0;
+
+        if (skip > 0) {
+            log.info("Catalog import {} resumed from {} after {} records", job.getId(), job.getSource(), skip);
+        } else {
+            log.info("Catalog import {} started from {}", job.getId(), job.getSource());
+        }
+        try (BufferedReader reader = open(path)) {
+            int[] columns = job.getFormat() == CatalogImportJob.Format.CSV ? csvHeader(reader.readLine()) : null;
+            long record = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (record++ < skip) continue;
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Import interrupted");
+                }
+
+                read++;
+                pending++;
+                String problem = parse(line, job.getFormat(), columns, fields);
+                if (problem == null) {
+                    problem = invalidReason(fields, categories);
+                }
+                if (problem != null) {
+                    rejected++;
+                    if (rejected <= MAX_LOGGED_REJECTS) {
+                        log.warn("Catalog import {} record {} rejected: {}", job.getId(), read, problem);
+                    }
+                } else {
+                    chunk.add(toItem(fields));
+                }
+
+                if (pending == chunkSize) {
+                    flush(job, chunk, staged, read, rejected);
+                    staged += chunk.size();
+                    chunk.clear();
+                    pending = 0;
+                }
+                if (read % PROGRESS_EVERY == 0) {
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    log.info("Catalog import {}: {} records read, {} staged, {} rejected ({} records/s)",
+                            job.getId(), read, staged, rejected, (long) ((read - skip) / Math.max(seconds, 1e-3)));
+                }
+            }
+        }
+        flush(job, chunk, staged, read, rejected);
+        staged += chunk.size();
+
+        long finalStaged = staged;
+        int published = transactionTemplate.execute(status -> {
+            furnitureDAO.bumpCatalogVersion(); // first: serializes with CatalogWriteService
+            int n = importDAO.publish(job.getId(), job.getMode());
+            importDAO.updateStatus(job.getId(), CatalogImportJob.Status.COMPLETED, null);
+            return n;
+        });
+        log.info("Catalog import {} completed: {} records, {} imported ({} mode), {} rejected in {} ms",
+                job.getId(), read, published, job.getMode(), rejected,
+                (System.nanoTime() - started) / 1_000_000);
+        // REPLACE merges repeated name and category rows, so only APPEND publishes every staged row
+        if (job.getMode() == CatalogImportJob.Mode.APPEND && published != finalStaged) {
+            log.warn("Catalog import {} staged {} rows but published {}", job.getId(), finalStaged, published);
+        }
+    }
+
+    /** Commit one chunk of staged rows together with the resume checkpoint. */
+    private void flush(CatalogImportJob job, List<Furniture> chunk, long stagedBefore, long read, long rejected) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!chunk.isEmpty()) {
+                importDAO.stageRows(job.getId(), stagedBefore, chunk);
+            }
+            importDAO.checkpoint(job.getId(), read, stagedBefore + chunk.size(), rejected);
+        });
+        job.setRecordsRead(read);
+        job.setRowsStaged(stagedBefore + chunk.size());
+        job.setRowsRejected(rejected);
+    }
+
+    private BufferedReader open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private Path resolve(String file) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("Import file is required");
+        }
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("Import file must be inside " + directory);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Import file not found: " + file);
+        }
+        return path;
+    }
+
+    private static CatalogImportJob.Format formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        if (name.endsWith(".csv")) return CatalogImportJob.Format.CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return CatalogImportJob.Format.JSONL;
+        throw new IllegalArgumentException("Cannot infer import format from " + path.getFileName() + "; pass format");
+    }
+
+    /** Column position of each of FIELDS in the CSV header. */
+    private static int[] csvHeader(String header) throws IOException {
+        if (header == null) {
+            throw new IOException("CSV feed is empty");
+        }
+        List<String> names = new ArrayList<>();
+        splitCsv(header, names);
+        int[] columns = new int[FIELDS.size()];
+        for (int i = 0; i < FIELDS.size(); i++) {
+            columns[i] = -1;
+            for (int c = 0; c < names.size(); c++) {
+                if (names.get(c).trim().equalsIgnoreCase(FIELDS.get(i))) {
+                    columns[i] = c;
+                }
+            }
+            if (columns[i] < 0) {
+                throw new IOException("CSV header has no '" + FIELDS.get(i) + "' column");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Extract the raw FIELDS values of one record into fields (null when
+     * absent). Returns a description of the problem if the line cannot be
+     * parsed at all.
+     */
+    private String parse(String line, CatalogImportJob.Format format, int[] columns, String[] fields) {
+        Arrays.fill(fields, null);
+        if (format == CatalogImportJob.Format.CSV) {
+            List<String> values = new ArrayList<>(columns.length);
+            if (!splitCsv(line, values)) return "unbalanced quotes";
+            for (int i = 0; i < columns.length; i++) {
+                fields[i] = columns[i] < values.size() ? values.get(columns[i]) : null;
+            }
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return "not a JSON object";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int field = FIELDS.indexOf(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    parser.skipChildren();
+                } else if (field >= 0 && value != JsonToken.VALUE_NULL) {
+                    fields[field] = parser.getText();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return "malformed JSON";
+        }
+    }
+
+    /** The record as a catalog item; fields must have passed invalidReason. */
+    private static Furniture toItem(String[] fields) {
+        return new Furniture(null, fields[NAME].trim(), Double.parseDouble(fields[WIDTH].trim()),
+                Double.parseDouble(fields[DEPTH].trim()), (int) Math.round(Double.parseDouble(fields[PRICE].trim())),
+                fields[CATEGORY].trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** Why the record cannot be imported, or null if it is valid. */
+    private static String invalidReason(String[] fields, Set<String> categories) {
+        String name = fields[NAME];
+        if (name == null || name.isBlank()) return "name is required";
+        if (name.trim().length() > MAX_NAME_LENGTH) return "name longer than " + MAX_NAME_LENGTH;
+        String category = fields[CATEGORY];
+        if (category == null || !categories.contains(category.trim().toLowerCase(Locale.ROOT))) {
+            return "unknown category '" + category + "'";
+        }
+        for (int f : new int[] {WIDTH, DEPTH}) {
+            double v = number(fields[f]);
+            if (!(v > 0 && v <= MAX_DIMENSION)) {
+                return FIELDS.get(f) + " must be between 0 and " + MAX_DIMENSION + " m";
+            }
+        }
+        double price = number(fields[PRICE]);
+        if (!(price >= 0.5 && price <= Integer.MAX_VALUE)) return "price must be positive";
+        return null;
+    }
+
+    private static double number(String value) {
+        if (value == null) return Double.NaN;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Split one CSV line (RFC 4180 quoting, no embedded line breaks) into out.
+     * Returns false if a quoted field is not closed.
+     */
+    static boolean splitCsv(String line, List<String> out) {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        out.add(field.toString());
+        return !quoted;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
@@ -0,0 +1,63 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Furniture catalog indexed by category (case-insensitive).
+ * Built once per catalog snapshot and shared read-only between requests.
+ */
+public final class CatalogIndex {
+
+    private final Map<String, CategoryIndex> byCategory;
+
+    private CatalogIndex(Map<String, CategoryIndex> byCategory) {
+        this.byCategory = byCategory;
+    }
+
+    public static CatalogIndex of(List<Furniture> items) {
+        Map<String, List<Furniture>> grouped = new HashMap<>();
+        for (Furniture f : items) {
+            if (f.getCategory() == null) continue;
+            grouped.computeIfAbsent(key(f.getCategory()), k -> new ArrayList<>()).add(f);
+        }
+        Map<String, CategoryIndex> index = new HashMap<>();
+        grouped.forEach((category, list) -> index.put(category, new CategoryIndex(list)));
+        return new CatalogIndex(index);
+    }
+
+    /**
+     * Index for the category; never null (empty when the category is unknown).
+     */
+    public CategoryIndex category(String category) {
+        if (category == null) return CategoryIndex.EMPTY;
+        return byCategory.getOrDefault(key(category), CategoryIndex.EMPTY);
+    }
+
+    /**
+     * Cheapest item of the category that fits a maxWidth x maxDepth box, or null.
+     */
+    public Furniture cheapestFitting(String category, double maxWidth, double maxDepth) {
+        CategoryIndex index = category(category);
+        int slot = index.cheapestFitting(maxWidth, maxDepth);
+        return slot < 0 ? null : index.get(slot);
+    }
+
+    /**
+     * Item of the category with the given id, or null.
+     */
+    public Furniture find(String category, Long id) {
+        CategoryIndex index = category(category);
+        int slot = index.findById(id);
+        return slot < 0 ? null : index.get(slot);
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,141 @@
+package com.interiordesign.service;
+
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the in-memory catalog snapshot used by the layout hot path.
+ * The snapshot is loaded once, then swapped atomically whenever the
+ * catalog version in the database changes or reload() is called.
+ *
+ * With catalog.source=database, layouts are instead built from per-room
+ * queries (queryIndex) so large catalogs are not held in memory for them.
+ *
+ * Catalog writers change furniture rows and bump the version in one
+ * transaction. Reads run in a read-only serializable transaction, one
+ * MVCC snapshot that takes no locks, and read the version together with
+ * the items, so a snapshot or index never mixes two catalog versions.
+ * (H2's repeatable read is not enough: it does not pin one snapshot for
+ * the whole transaction, so furniture rows read after the version can
+ * already belong to the next one. Neither are separate autocommit
+ * statements, each with its own snapshot.)
+ */
+@Service
+public class CatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
+
+    private final FurnitureDAO furnitureDAO;
+    private final LayoutMetrics layoutMetrics;
+    private final int queryLimit;
+    private final TransactionTemplate snapshotReads;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    // not synchronized: a virtual thread must not pin its carrier during the catalog queries
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public CatalogService(FurnitureDAO furnitureDAO, LayoutMetrics layoutMetrics,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${catalog.query.max-items-per-category:200}") int queryLimit) {
+        this.furnitureDAO = furnitureDAO;
+        this.layoutMetrics = layoutMetrics;
+        this.queryLimit = queryLimit;
+        this.snapshotReads = new TransactionTemplate(transactionManager);
+        this.snapshotReads.setReadOnly(true);
+        this.snapshotReads.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    }
+
+    /**
+     * Snapshot to use for a single request. Callers should read it once and
+     * keep the reference for the whole request.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * Snapshot if one has been loaded, else null; never touches the database.
+     */
+    public CatalogSnapshot loaded() {
+        return current.get();
+    }
+
+    /**
+     * Catalog version as currently stored in the database.
+     */
+    public long databaseVersion() {
+        return furnitureDAO.findCatalogVersion();
+    }
+
+    /**
+     * Index for a single room built from database queries at the given
+     * catalog version: per given category, the cheapest items priced within
+     * the room budget whose catalog footprint fits the room, at most
+     * catalog.query.max-items-per-category each.
+     *
+     * @throws CatalogChangedException if the catalog version is no longer the given one
+     */
+    public CatalogIndex queryIndex(Room room, List<String> categories, long version) {
+        return snapshotReads.execute(status -> {
+            long actual = furnitureDAO.findCatalogVersion();
+            if (actual != version) {
+                throw new CatalogChangedException(version, actual);
+            }
+            List<Furniture> items = new ArrayList<>();
+            for (String category : categories) {
+                items.addAll(furnitureDAO.findAffordableFitting(category, room.getBudget(),
+                        room.getLength(), room.getWidth(), queryLimit));
+            }
+            return CatalogIndex.of(items);
+        });
+    }
+
+    /**
+     * Unconditionally reload the catalog from the database.
+     */
+    public CatalogSnapshot reload() {
+        reloadLock.lock();
+        try {
+            CatalogSnapshot snapshot = layoutMetrics.timeCatalogLoad(this::load);
+            current.set(snapshot);
+            log.info("Loaded furniture catalog version {} ({} items)", snapshot.getVersion(),
+                    snapshot.getItems().size());
+            return snapshot;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot load() {
+        return snapshotReads.execute(status -> {
+            long version = furnitureDAO.findCatalogVersion();
+            return new CatalogSnapshot(version, furnitureDAO.findAll(), Instant.now());
+        });
+    }
+
+    /**
+     * Poll the catalog version and reload only when it has moved.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:5000}")
+    public void refreshIfStale() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null || furnitureDAO.findCatalogVersion() != snapshot.getVersion()) {
+            reload();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the furniture catalog at a given catalog version.
+ * Items are shared between requests and must not be modified.
+ * The category index is built once here, not per request.
+ * The content hash covers what layouts depend on (id, category, size and
+ * price of every item, in order), so artifacts built from one snapshot can
+ * be reused for a later one with the same content.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final List<Furniture> items;
+    private final Instant loadedAt;
+    private final CatalogIndex index;
+    private final long contentHash;
+
+    public CatalogSnapshot(long version, List<Furniture> items, Instant loadedAt) {
+        this.version = version;
+        this.items = Collections.unmodifiableList(items);
+        this.loadedAt = loadedAt;
+        this.index = CatalogIndex.of(this.items);
+        this.contentHash = contentHashOf(this.items);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Furniture> getItems() {
+        return items;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public CatalogIndex getIndex() {
+        return index;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    private static long contentHashOf(List<Furniture> items) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer item = ByteBuffer.allocate(8 + 8 + 8 + 4);
+            for (Furniture f : items) {
+                item.clear();
+                item.putLong(f.getId() != null ? f.getId() : -1L)
+                        .putDouble(f.getWidth())
+                        .putDouble(f.getDepth())
+                        .putInt(f.getPrice());
+                digest.update(item.array());
+                byte[] category = String.valueOf(f.getCategory()).getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(4).putInt(category.length).array());
+                digest.update(category);
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.interiordesign.service;
+
+/**
+ * Where layouts read furniture from (property catalog.source).
+ * SNAPSHOT: the in-memory catalog snapshot, refreshed when the version changes.
+ * DATABASE: per-room queries filtered by budget and room size, for catalogs
+ * too large to keep in memory.
+ */
+public enum CatalogSource {
+    SNAPSHOT,
+    DATABASE
+}
@@ -0,0 +1,160 @@
+package com.interiordesign.service;
+
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.CatalogChange;
+import com.interiordesign.model.Furniture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Applies batched catalog edits from the admin API as one new catalog
+ * version.
+ *
+ * A change is validated up front, then applied in one transaction that
+ * bumps the catalog version first (its row lock makes catalog writers,
+ * imports included, commit one at a time) and deletes, updates and inserts
+ * items in JDBC batches. Readers see either none or all of it: the snapshot
+ * is swapped only after commit, and database-mode queries are checked
+ * against the version (see CatalogService), so layouts in flight keep the
+ * catalog they started with. The local snapshot is reloaded right after the
+ * commit; other instances pick the version up on their next poll.
+ */
+@Lazy
+@Service
+public class CatalogWriteService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogWriteService.class);
+
+    private final FurnitureDAO furnitureDAO;
+    private final CatalogService catalogService;
+    private final RuleEngine ruleEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    public CatalogWriteService(FurnitureDAO furnitureDAO, CatalogService catalogService, RuleEngine ruleEngine,
+                               TransactionTemplate transactionTemplate) {
+        this.furnitureDAO = furnitureDAO;
+        this.catalogService = catalogService;
+        this.ruleEngine = ruleEngine;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Apply the change as one catalog version.
+     *
+     * @throws IllegalArgumentException listing every invalid item or unknown id; nothing is changed
+     */
+    public Result apply(CatalogChange change) {
+        Set<String> categories = new HashSet<>(ruleEngine.rules().getCategories());
+        List<String> errors = new ArrayList<>();
+        List<Furniture> inserts = new ArrayList<>();
+        List<Furniture> updates = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < change.getUpserts().size(); i++) {
+            Furniture item = change.getUpserts().get(i);
+            String path = "upserts[" + i + "]";
+            String problem = item == null ? "must be an object" : invalidReason(item, categories);
+            if (problem != null) {
+                errors.add(path + ": " + problem);
+            } else if (item.getId() != null && !ids.add(item.getId())) {
+                errors.add(path + ": id " + item.getId() + " appears more than once");
+            } else {
+                Furniture normalized = new Furniture(item.getId(), item.getName().trim(), item.getWidth(),
+                        item.getDepth(), item.getPrice(), item.getCategory().trim().toLowerCase(Locale.ROOT));
+                (item.getId() == null ? inserts : updates).add(normalized);
+            }
+        }
+        for (int i = 0; i < change.getDeletes().size(); i++) {
+            Long id = change.getDeletes().get(i);
+            if (id == null) {
+                errors.add("deletes[" + i + "]: id is required");
+            } else if (!ids.add(id)) {
+                errors.add("deletes[" + i + "]: id " + id + " appears more than once");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+
+        Result result = transactionTemplate.execute(status -> {
+            furnitureDAO.bumpCatalogVersion();
+            List<Long> missing = new ArrayList<>(furnitureDAO.deleteAll(change.getDeletes()));
+            missing.addAll(furnitureDAO.updateAll(updates));
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("No catalog items with ids " + missing);
+            }
+            List<Long> inserted = furnitureDAO.insertAll(inserts);
+            return new Result(furnitureDAO.findCatalogVersion(), inserted, updates.size(),
+                    change.getDeletes().size());
+        });
+        log.info("Catalog version {}: {} inserted, {} updated, {} deleted", result.getVersion(),
+                result.getInserted().size(), result.getUpdated(), result.getDeleted());
+        try {
+            catalogService.reload();
+        } catch (RuntimeException e) {
+            log.warn("Catalog version {} committed but not reloaded yet: {}", result.getVersion(), e.getMessage());
+        }
+        return result;
+    }
+
+    /** Why the item cannot be stored, or null if it is valid. */
+    private static String invalidReason(Furniture item, Set<String> categories) {
+        if (item.getName() == null || item.getName().isBlank()) return "name is required";
+        if (item.getName().trim().length() > CatalogImportService.MAX_NAME_LENGTH) {
+            return "name longer than " + CatalogImportService.MAX_NAME_LENGTH;
+        }
+        String category = item.getCategory();
+        if (category == null || !categories.contains(category.trim().toLowerCase(Locale.ROOT))) {
+            return "unknown category '" + category + "'";
+        }
+        if (!(item.getWidth() > 0 && item.getWidth() <= CatalogImportService.MAX_DIMENSION)
+                || !(item.getDepth() > 0 && item.getDepth() <= CatalogImportService.MAX_DIMENSION)) {
+            return "width and depth must be between 0 and " + CatalogImportService.MAX_DIMENSION + " m";
+        }
+        if (item.getPrice() <= 0) return "price must be positive";
+        return null;
+    }
+
+    /**
+     * Outcome of an applied change.
+     */
+    public static final class Result {
+        private final long version;
+        private final List<Long> inserted;
+        private final int updated;
+        private final int deleted;
+
+        Result(long version, List<Long> inserted, int updated, int deleted) {
+            this.version = version;
+            this.inserted = inserted;
+            this.updated = updated;
+            this.deleted = deleted;
+        }
+
+        /** Catalog version the change was committed as. */
+        public long getVersion() {
+            return version;
+        }
+
+        /** Ids of the new items, in upsert order. */
+        public List<Long> getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+    }
+}
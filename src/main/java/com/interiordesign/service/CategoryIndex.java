@@ -0,0 +1,183 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Items of one category, held in compact primitive arrays.
+ *
+ * Slots are ordered by price (ascending, catalog order on ties), so slot 0 is
+ * always the cheapest item. Two secondary orders over the same slots support
+ * O(log n) "cheapest item no wider than X" and "cheapest item with footprint
+ * at most A" lookups: keys sorted ascending plus a prefix array holding the
+ * cheapest slot seen so far.
+ */
+public final class CategoryIndex {
+
+    static final CategoryIndex EMPTY = new CategoryIndex(List.of());
+
+    private final Furniture[] items;
+    private final double[] width;
+    private final double[] depth;
+    private final int[] price;
+
+    // secondary order by width
+    private final double[] widthKeys;
+    private final int[] cheapestUpToWidth;
+
+    // secondary order by footprint (width * depth)
+    private final double[] footprintKeys;
+    private final int[] cheapestUpToFootprint;
+
+    CategoryIndex(List<Furniture> categoryItems) {
+        Furniture[] sorted = categoryItems.toArray(new Furniture[0]);
+        // stable sort keeps catalog order for equal prices
+        Arrays.sort(sorted, Comparator.comparingInt(Furniture::getPrice));
+
+        int n = sorted.length;
+        this.items = sorted;
+        this.width = new double[n];
+        this.depth = new double[n];
+        this.price = new int[n];
+        for (int i = 0; i < n; i++) {
+            width[i] = sorted[i].getWidth();
+            depth[i] = sorted[i].getDepth();
+            price[i] = sorted[i].getPrice();
+        }
+
+        double[] footprint = new double[n];
+        for (int i = 0; i < n; i++) {
+            footprint[i] = width[i] * depth[i];
+        }
+
+        this.widthKeys = new double[n];
+        this.cheapestUpToWidth = new int[n];
+        buildPrefix(width, widthKeys, cheapestUpToWidth);
+
+        this.footprintKeys = new double[n];
+        this.cheapestUpToFootprint = new int[n];
+        buildPrefix(footprint, footprintKeys, cheapestUpToFootprint);
+    }
+
+    /**
+     * Sort slots by key and record, for each prefix, the cheapest slot in it.
+     * Because slots are price-ordered, the cheapest slot is the smallest one.
+     */
+    private static void buildPrefix(double[] key, double[] sortedKeys, int[] prefixCheapest) {
+        int n = key.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> key[i]));
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int slot = order[i];
+            sortedKeys[i] = key[slot];
+            best = Math.min(best, slot);
+            prefixCheapest[i] = best;
+        }
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    public Furniture get(int slot) {
+        return items[slot];
+    }
+
+    /** Slot of the item with the given id, or -1. Linear scan. */
+    public int findById(Long id) {
+        if (id == null) return -1;
+        for (int i = 0; i < items.length; i++) {
+            if (id.equals(items[i].getId())) return i;
+        }
+        return -1;
+    }
+
+    public double width(int slot) {
+        return width[slot];
+    }
+
+    public double depth(int slot) {
+        return depth[slot];
+    }
+
+    public int price(int slot) {
+        return price[slot];
+    }
+
+    /**
+     * Number of items with price <= maxPrice; these occupy slots [0, n).
+     */
+    public int countPricedAtMost(int maxPrice) {
+        int lo = 0;
+        int hi = price.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (price[mid] <= maxPrice) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Slot of the cheapest item with width <= maxWidth, or -1.
+     */
+    public int cheapestWithWidthAtMost(double maxWidth) {
+        int pos = lastAtMost(widthKeys, maxWidth);
+        return pos < 0 ? -1 : cheapestUpToWidth[pos];
+    }
+
+    /**
+     * Slot of the cheapest item with width * depth <= maxFootprint, or -1.
+     */
+    public int cheapestWithFootprintAtMost(double maxFootprint) {
+        int pos = lastAtMost(footprintKeys, maxFootprint);
+        return pos < 0 ? -1 : cheapestUpToFootprint[pos];
+    }
+
+    /**
+     * Slot of the cheapest item that fits a maxWidth x maxDepth box, or -1.
+     * The width lookup answers in O(log n) when the cheapest narrow-enough item
+     * is also shallow enough; otherwise it falls back to a price-ordered scan
+     * that stops at the first fit.
+     */
+    public int cheapestFitting(double maxWidth, double maxDepth) {
+        int slot = cheapestWithWidthAtMost(maxWidth);
+        if (slot < 0 || depth[slot] <= maxDepth) {
+            return slot;
+        }
+        for (int i = slot + 1; i < items.length; i++) {
+            if (width[i] <= maxWidth && depth[i] <= maxDepth) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastAtMost(double[] sortedKeys, double bound) {
+        int lo = 0;
+        int hi = sortedKeys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedKeys[mid] <= bound) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+}
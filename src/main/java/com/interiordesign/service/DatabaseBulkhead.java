@@ -0,0 +1,72 @@
+package com.interiordesign.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how many request threads use the database at once, so a burst
+ * (thousands of virtual threads) cannot exhaust or queue on the connection
+ * pool. db.bulkhead.max-concurrent should stay below the pool size to leave
+ * connections for background work (history writer, catalog polling, imports),
+ * which does not go through the bulkhead.
+ *
+ * A caller waits at most db.bulkhead.acquire-timeout-ms for a slot and then
+ * gets a DatabaseBusyException, which callers turn into a degraded answer
+ * (or 503) instead of waiting for the pool.
+ *
+ * Meters: db.bulkhead.active, db.bulkhead.rejected.
+ */
+@Component
+public class DatabaseBulkhead {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public DatabaseBulkhead(MeterRegistry registry,
+                            @Value("${db.bulkhead.max-concurrent:8}") int maxConcurrent,
+                            @Value("${db.bulkhead.acquire-timeout-ms:100}") long acquireTimeoutMs) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent);
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, acquireTimeoutMs));
+        this.rejected = Counter.builder("db.bulkhead.rejected")
+                .description("Database calls rejected because the bulkhead stayed full")
+                .register(registry);
+        Gauge.builder("db.bulkhead.active", this, b -> b.maxConcurrent - b.permits.availablePermits())
+                .description("Request threads currently using the database")
+                .register(registry);
+    }
+
+    /**
+     * Run a database call within a bulkhead slot.
+     *
+     * @throws DatabaseBusyException if no slot became free in time (or the thread was interrupted)
+     */
+    public <T> T call(Supplier<T> work) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new DatabaseBusyException("Database busy: no connection slot within "
+                    + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms");
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
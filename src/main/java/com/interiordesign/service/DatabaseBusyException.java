@@ -0,0 +1,14 @@
+package com.interiordesign.service;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown by DatabaseBulkhead when no database slot became free within the
+ * acquire timeout. Transient: the same call may succeed moments later.
+ */
+public class DatabaseBusyException extends TransientDataAccessResourceException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
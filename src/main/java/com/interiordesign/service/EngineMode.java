@@ -0,0 +1,11 @@
+package com.interiordesign.service;
+
+/**
+ * Layout engine selection (property layout.engine.mode).
+ * GREEDY: RuleEngine, one cheapest item per category, fastest.
+ * OPTIMIZING: LayoutSolver, searches item combinations for the best use of the budget.
+ */
+public enum EngineMode {
+    GREEDY,
+    OPTIMIZING
+}
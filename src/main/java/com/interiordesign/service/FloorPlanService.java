@@ -0,0 +1,334 @@
+package com.interiordesign.service;
+
+import com.interiordesign.config.VirtualThreads;
+import com.interiordesign.model.FloorPlan;
+import com.interiordesign.model.FloorPlanLayout;
+import com.interiordesign.model.FloorPlanRoom;
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Furnishes the rooms of a floor plan from one total budget.
+ *
+ * The budget is first split by what each room needs: the cheapest fitting
+ * items of its required rules, the rest in proportion to the cheapest
+ * fitting items of its optional rules. All rooms are then laid out in
+ * parallel by the RuleEngine, each with its share and its role's rules.
+ * A rebalancing round takes back what rooms left unspent and grants it to
+ * rooms whose next optional item was skipped for lack of budget (highest
+ * rule weight per dollar first); only those rooms are laid out again.
+ * Rounds stop when no grant fits or after floorplan.rebalance-rounds.
+ *
+ * Every room's budget stays within the Room budget range ($500 to $10000),
+ * which adjusting a room layout later validates again; plans whose budget
+ * cannot give each room that much are rejected.
+ *
+ * Room budgets change between rounds, so rooms are laid out from the
+ * catalog snapshot with either catalog source. Each final room layout is
+ * recorded like any other, with its role, and gets its own id; adjusting it
+ * later (LayoutService.relayout) uses the role's rules again.
+ */
+@Service
+public class FloorPlanService {
+
+    private final CatalogService catalogService;
+    private final RuleEngine ruleEngine;
+    private final LayoutMetrics layoutMetrics;
+    private final LayoutHistoryService layoutHistory;
+    private final int rebalanceRounds;
+    private final ExecutorService executor = VirtualThreads.newPerTaskExecutor("floor-plan");
+
+    public FloorPlanService(CatalogService catalogService, RuleEngine ruleEngine, LayoutMetrics layoutMetrics,
+                            LayoutHistoryService layoutHistory,
+                            @Value("${floorplan.rebalance-rounds:3}") int rebalanceRounds) {
+        this.catalogService = catalogService;
+        this.ruleEngine = ruleEngine;
+        this.layoutMetrics = layoutMetrics;
+        this.layoutHistory = layoutHistory;
+        this.rebalanceRounds = Math.max(0, rebalanceRounds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lay out every room of the plan. Callers bound the number of rooms,
+     * since each is laid out on its own thread.
+     *
+     * @throws IllegalArgumentException if a room's role is unknown or the
+     *         budget cannot be split into room budgets
+     */
+    public FloorPlanLayout plan(FloorPlan plan) {
+        PlacementRules rules = ruleEngine.rules();
+        List<FloorPlanRoom> rooms = plan.getRooms();
+        int n = rooms.size();
+        PlacementRules[] roleRules = new PlacementRules[n];
+        String[] roles = new String[n];
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String role = rooms.get(i).getRole().trim().toLowerCase(Locale.ROOT);
+            roles[i] = role;
+            roleRules[i] = rules.forRole(role);
+            if (roleRules[i] == null) {
+                errors.add("rooms[" + i + "].role: unknown role '" + role + "' (one of " + rules.getRoles() + ")");
+            }
+        }
+        int budget = plan.getBudget();
+        if (budget < (long) Room.MIN_BUDGET * n || budget > (long) Room.MAX_BUDGET * n) {
+            errors.add("budget: $" + budget + " cannot be split into " + n + " room budgets of $"
+                    + Room.MIN_BUDGET + " to $" + Room.MAX_BUDGET);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+
+        CatalogSnapshot snapshot = catalogService.current();
+        CatalogIndex catalog = snapshot.getIndex();
+        int[] allocation = split(budget, rooms, roleRules, catalog);
+        RoomLayout[] layouts = new RoomLayout[n];
+        boolean[] changed = new boolean[n];
+        Arrays.fill(changed, true);
+        layOut(rooms, roleRules, catalog, allocation, changed, layouts);
+        int rounds = 0;
+        while (rounds < rebalanceRounds && rebalance(budget, rooms, roleRules, catalog, allocation, layouts, changed)) {
+            layOut(rooms, roleRules, catalog, allocation, changed, layouts);
+            rounds++;
+        }
+
+        int totalCost = 0;
+        List<FloorPlanLayout.Entry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            totalCost += layouts[i].getTotalCost();
+            layoutMetrics.recordOutcomes(layouts[i]);
+            layouts[i].setRole(roles[i]);
+            layoutHistory.record(layouts[i], snapshot.getVersion());
+            entries.add(new FloorPlanLayout.Entry(rooms.get(i).getName(), rooms.get(i).getRole(), layouts[i]));
+        }
+        List<String> planErrors = new ArrayList<>();
+        if (totalCost > budget) {
+            planErrors.add("Required furniture costs $" + totalCost + ", more than the $" + budget + " budget.");
+        }
+        return new FloorPlanLayout(budget, totalCost, rounds, entries, planErrors);
+    }
+
+    /**
+     * Initial shares: each room's required items first (in proportion to
+     * them if the budget does not even cover those), the rest by what its
+     * optional items cost, or by floor area if no room has any; then moved
+     * into the Room budget range (clampToRoomBudgets).
+     */
+    private static int[] split(int budget, List<FloorPlanRoom> rooms, PlacementRules[] roleRules,
+                               CatalogIndex catalog) {
+        int n = rooms.size();
+        long[] need = new long[n];
+        long[] wish = new long[n];
+        long totalNeed = 0;
+        long totalWish = 0;
+        double totalArea = 0;
+        for (int i = 0; i < n; i++) {
+            FloorPlanRoom room = rooms.get(i);
+            PlacementRules r = roleRules[i];
+            for (int rule = 0; rule < r.size(); rule++) {
+                Furniture item = catalog.cheapestFitting(r.step(rule).category, room.getLength(), room.getWidth());
+                if (item == null) continue;
+                if (r.step(rule).required) {
+                    need[i] += item.getPrice();
+                } else {
+                    wish[i] += item.getPrice();
+                }
+            }
+            totalNeed += need[i];
+            totalWish += wish[i];
+            totalArea += room.getLength() * room.getWidth();
+        }
+
+        int[] allocation = new int[n];
+        long assigned = 0;
+        for (int i = 0; i < n; i++) {
+            double area = rooms.get(i).getLength() * rooms.get(i).getWidth();
+            double share;
+            if (budget <= totalNeed) {
+                share = (double) budget * need[i] / totalNeed;
+            } else if (totalWish > 0) {
+                share = need[i] + (double) (budget - totalNeed) * wish[i] / totalWish;
+            } else {
+                share = need[i] + (budget - totalNeed) * area / totalArea;
+            }
+            allocation[i] = (int) share;
+            assigned += allocation[i];
+        }
+        allocation[0] += (int) (budget - assigned); // rounding remainder
+        clampToRoomBudgets(allocation);
+        return allocation;
+    }
+
+    /**
+     * Raise shares below Room.MIN_BUDGET and cut shares above
+     * Room.MAX_BUDGET, taking the difference from or giving it to the other
+     * rooms in proportion to their shares, until all are in range. The total
+     * is unchanged; plan() made sure it fits the range for this many rooms.
+     */
+    private static void clampToRoomBudgets(int[] allocation) {
+        int n = allocation.length;
+        boolean[] clamped = new boolean[n];
+        while (true) {
+            long excess = 0; // freed by cut shares, less what raised ones took
+            for (int i = 0; i < n; i++) {
+                if (allocation[i] < Room.MIN_BUDGET) {
+                    excess -= Room.MIN_BUDGET - allocation[i];
+                    allocation[i] = Room.MIN_BUDGET;
+                    clamped[i] = true;
+                } else if (allocation[i] > Room.MAX_BUDGET) {
+                    excess += allocation[i] - Room.MAX_BUDGET;
+                    allocation[i] = Room.MAX_BUDGET;
+                    clamped[i] = true;
+                }
+            }
+            if (excess == 0) return;
+            long free = 0;
+            int first = -1;
+            for (int i = 0; i < n; i++) {
+                if (clamped[i]) continue;
+                free += allocation[i];
+                if (first < 0) first = i;
+            }
+            if (first < 0) {
+                // every room clamped, some at each end: settle the rest on any room with room to move
+                for (int i = 0; i < n && excess != 0; i++) {
+                    long move = excess > 0 ? Math.min(excess, Room.MAX_BUDGET - allocation[i])
+                            : Math.max(excess, Room.MIN_BUDGET - allocation[i]);
+                    allocation[i] += (int) move;
+                    excess -= move;
+                }
+                return;
+            }
+            long moved = 0;
+            for (int i = 0; i < n; i++) {
+                if (clamped[i]) continue;
+                long move = excess * allocation[i] / free;
+                allocation[i] += (int) move;
+                moved += move;
+            }
+            allocation[first] += (int) (excess - moved); // rounding remainder; range checked next pass
+        }
+    }
+
+    /** Lay out the changed rooms in parallel, then clear their flags. */
+    private void layOut(List<FloorPlanRoom> rooms, PlacementRules[] roleRules, CatalogIndex catalog,
+                        int[] allocation, boolean[] changed, RoomLayout[] layouts) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            if (!changed[i]) continue;
+            int index = i;
+            FloorPlanRoom room = rooms.get(i);
+            Room sized = new Room(room.getLength(), room.getWidth(), allocation[i]);
+            pending.add(CompletableFuture.runAsync(() -> layouts[index] = layoutMetrics.timeGenerate(
+                    EngineMode.GREEDY, () -> ruleEngine.generateLayout(sized, catalog, roleRules[index])), executor));
+            changed[i] = false;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * One rebalancing round. Pools the budget rooms left unspent and grants
+     * it to rooms whose next optional item was skipped for lack of budget;
+     * what no grant needs goes to the granted rooms as well, and what those
+     * cannot take within Room.MAX_BUDGET to the others. Rooms without a grant
+     * keep their layout, its budget cut to what it spent but not below
+     * Room.MIN_BUDGET (laying them out again with that budget would place the
+     * same items). Returns false, changing nothing, if no grant fits.
+     */
+    private static boolean rebalance(int budget, List<FloorPlanRoom> rooms, PlacementRules[] roleRules,
+                                     CatalogIndex catalog, int[] allocation, RoomLayout[] layouts,
+                                     boolean[] changed) {
+        int n = rooms.size();
+        int pool = budget;
+        int[] kept = new int[n];
+        int[] wantRule = new int[n];
+        int[] wantBudget = new int[n];
+        List<Integer> wanting = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int spent = layouts[i].getTotalCost();
+            kept[i] = Math.max(spent, Room.MIN_BUDGET);
+            pool -= kept[i];
+            wantRule[i] = nextSkipped(rooms.get(i), roleRules[i], catalog, layouts[i]);
+            if (wantRule[i] >= 0) {
+                int price = catalog.cheapestFitting(roleRules[i].step(wantRule[i]).category,
+                        rooms.get(i).getLength(), rooms.get(i).getWidth()).getPrice();
+                if (spent + price > Room.MAX_BUDGET) continue;
+                // what the room needs on top of the budget it keeps
+                wantBudget[i] = spent + price - kept[i];
+                wanting.add(i);
+            }
+        }
+        // most rule weight per dollar first
+        wanting.sort((a, b) -> Double.compare(roleRules[b].step(wantRule[b]).weight / (double) wantBudget[b],
+                roleRules[a].step(wantRule[a]).weight / (double) wantBudget[a]));
+        List<Integer> granted = new ArrayList<>();
+        for (int i : wanting) {
+            if (wantBudget[i] <= pool) {
+                pool -= wantBudget[i];
+                granted.add(i);
+            }
+        }
+        if (granted.isEmpty()) return false;
+
+        for (int i = 0; i < n; i++) {
+            allocation[i] = kept[i];
+        }
+        for (int g = 0; g < granted.size(); g++) {
+            int i = granted.get(g);
+            int extra = pool / granted.size() + (g < pool % granted.size() ? 1 : 0);
+            allocation[i] += wantBudget[i] + extra;
+            changed[i] = true;
+        }
+        clampToRoomBudgets(allocation);
+        for (int i = 0; i < n; i++) {
+            if (changed[i]) continue;
+            layouts[i].setRoom(new Room(rooms.get(i).getLength(), rooms.get(i).getWidth(), allocation[i]));
+            layouts[i].setRemainingBudget(allocation[i] - layouts[i].getTotalCost());
+        }
+        return true;
+    }
+
+    /**
+     * First optional rule, in rule order, whose cheapest fitting item was not
+     * placed although more budget would have paid for it; -1 if none.
+     */
+    private static int nextSkipped(FloorPlanRoom room, PlacementRules rules, CatalogIndex catalog,
+                                   RoomLayout layout) {
+        Set<String> placed = new HashSet<>();
+        for (FurniturePosition p : layout.getPlaced()) {
+            placed.add(p.getFurniture().getCategory().toLowerCase(Locale.ROOT));
+        }
+        for (int rule = 0; rule < rules.size(); rule++) {
+            PlacementStep step = rules.step(rule);
+            if (step.required || placed.contains(step.category)) continue;
+            Furniture item = catalog.cheapestFitting(step.category, room.getLength(), room.getWidth());
+            if (item != null && item.getPrice() > layout.getRemainingBudget()) return rule;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.interiordesign.service;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the room: each cell lists the rectangles touching it, so
+ * an overlap query only inspects rectangles in the cells it covers. Keeps
+ * dense layouts (offices, showrooms) fast without allocating per query.
+ */
+final class GridOccupancyIndex extends AbstractOccupancyIndex {
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+
+    // per-cell rectangle ids; appended in id order, so removeLast pops tails
+    private final int[][] cells;
+    private final int[] cellCounts;
+
+    // de-duplicates rectangles spanning several cells within one query
+    private int[] seenStamp = new int[8];
+    private int stamp;
+
+    GridOccupancyIndex(double roomW, double roomH, double cellSize) {
+        super(roomW, roomH);
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(roomW / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(roomH / cellSize));
+        this.cells = new int[cols * rows][];
+        this.cellCounts = new int[cols * rows];
+    }
+
+    @Override
+    public void add(double x, double y, double w, double d) {
+        int id = count;
+        super.add(x, y, w, d);
+        if (seenStamp.length < xs.length) {
+            seenStamp = Arrays.copyOf(seenStamp, xs.length);
+        }
+        int c0 = col(x), c1 = col(x + w), r0 = row(y), r1 = row(y + d);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                int[] ids = cells[cell];
+                if (ids == null) {
+                    ids = cells[cell] = new int[4];
+                } else if (cellCounts[cell] == ids.length) {
+                    ids = cells[cell] = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[cellCounts[cell]++] = id;
+            }
+        }
+    }
+
+    @Override
+    public void removeLast() {
+        if (count == 0) return;
+        int id = count - 1;
+        int c0 = col(xs[id]), c1 = col(xs[id] + ws[id]), r0 = row(ys[id]), r1 = row(ys[id] + ds[id]);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                cellCounts[r * cols + c]--;
+            }
+        }
+        super.removeLast();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cellCounts, 0);
+        super.clear();
+    }
+
+    @Override
+    public boolean overlaps(double x, double y, double w, double d) {
+        if (count == 0) return false;
+        int query = nextStamp();
+        int c0 = col(x), c1 = col(x + w), r0 = row(y), r1 = row(y + d);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                int[] ids = cells[cell];
+                for (int k = 0, n = cellCounts[cell]; k < n; k++) {
+                    int id = ids[k];
+                    if (seenStamp[id] == query) continue;
+                    seenStamp[id] = query;
+                    if (intersects(id, x, y, w, d)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seenStamp, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    private int col(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) (x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+}
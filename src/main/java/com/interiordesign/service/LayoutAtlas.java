@@ -0,0 +1,337 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Precomputed greedy layouts for a grid over the whole room input space
+ * (3-15 m x 3-15 m x $500-$10000), served from a memory-mapped file
+ * (see LayoutAtlasFile) before the layout cache and the engine are tried.
+ *
+ * On startup the file at layout.atlas.file is mapped if it was built for the
+ * current catalog content (ids, categories, sizes and prices), placement
+ * rules and grid. Otherwise it is only built at startup with
+ * layout.atlas.build-on-start=true, since a build lays out every grid point
+ * and would compete with the first requests; POST /admin/layout-atlas/rebuild
+ * builds it on demand, or a file built elsewhere for the same catalog can be
+ * dropped in place. Once an atlas is mapped (or with build-on-start), a change
+ * of catalog content or rules rebuilds it in the background and lookups miss
+ * until the new one is mapped.
+ *
+ * Builds run on layout.atlas.build-parallelism threads (default: half the
+ * CPUs). Shutdown cancels a running build and waits for it to remove its
+ * temporary file; temporary files left by a killed process are removed on
+ * startup.
+ *
+ * By default only rooms exactly on the grid are answered, so a room gets the
+ * same layout as from the engine. With layout.atlas.exact-only=false other
+ * rooms get the layout of the nearest grid point not larger than the room
+ * (floored like the layout cache), which may leave space or budget unused.
+ * Only used with layout.engine.mode=greedy and catalog.source=snapshot.
+ *
+ * Meters: layout.atlas.lookups{result=exact|nearest|miss}.
+ */
+@Service
+public class LayoutAtlas {
+
+    private static final Logger log = LoggerFactory.getLogger(LayoutAtlas.class);
+
+    private final CatalogService catalogService;
+    private final RuleEngine ruleEngine;
+    private final boolean enabled;
+    private final Path file;
+    private final double dimensionStep;
+    private final int budgetStep;
+    private final boolean exactOnly;
+    private final boolean buildOnStart;
+    private final ForkJoinPool buildPool;
+    private volatile boolean stopping;
+    private final AtomicReference<LayoutAtlasFile> current = new AtomicReference<>();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "layout-atlas");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Counter exactHits;
+    private final Counter nearestHits;
+    private final Counter misses;
+
+    // catalog version and rules of the last build attempt, so a failing build is not retried on every lookup
+    private volatile long attemptedVersion = -1;
+    private volatile long attemptedRules;
+    private volatile String lastError;
+
+    public LayoutAtlas(CatalogService catalogService, RuleEngine ruleEngine, MeterRegistry registry,
+                       @Value("${layout.atlas.enabled:true}") boolean enabled,
+                       @Value("${layout.atlas.file:data/layout-atlas.bin}") String file,
+                       @Value("${layout.atlas.dimension-step:0.25}") double dimensionStep,
+                       @Value("${layout.atlas.budget-step:100}") int budgetStep,
+                       @Value("${layout.atlas.exact-only:true}") boolean exactOnly,
+                       @Value("${layout.atlas.build-on-start:false}") boolean buildOnStart,
+                       @Value("${layout.atlas.build-parallelism:0}") int buildParallelism,
+                       @Value("${layout.engine.mode:greedy}") EngineMode engineMode,
+                       @Value("${catalog.source:snapshot}") CatalogSource catalogSource) {
+        this.catalogService = catalogService;
+        this.ruleEngine = ruleEngine;
+        this.enabled = enabled && engineMode == EngineMode.GREEDY && catalogSource == CatalogSource.SNAPSHOT;
+        this.file = Paths.get(file).toAbsolutePath().normalize();
+        this.dimensionStep = dimensionStep;
+        this.budgetStep = budgetStep;
+        this.exactOnly = exactOnly;
+        this.buildOnStart = buildOnStart;
+        this.buildPool = new ForkJoinPool(buildParallelism > 0 ? buildParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.exactHits = lookups(registry, "exact");
+        this.nearestHits = lookups(registry, "nearest");
+        this.misses = lookups(registry, "miss");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        removeStaleTmpFiles();
+        CatalogSnapshot snapshot = catalogService.current();
+        PlacementRules rules = ruleEngine.rules();
+        if (Files.exists(file)) {
+            try {
+                LayoutAtlasFile atlas = LayoutAtlasFile.open(file);
+                if (atlas.matches(snapshot, rules, dimensionStep, budgetStep)) {
+                    current.set(atlas);
+                    attemptedVersion = snapshot.getVersion();
+                    attemptedRules = rules.getRevision();
+                    log.info("Mapped layout atlas {} ({} layouts, catalog version {})",
+                            file, atlas.getRecordCount(), atlas.getCatalogVersion());
+                    return;
+                }
+                log.info("Layout atlas {} is for another catalog (built at version {}), other rules"
+                        + " or another grid", file, atlas.getCatalogVersion());
+            } catch (IOException e) {
+                log.warn("Cannot read layout atlas {}: {}", file, e.getMessage());
+            }
+        }
+        if (buildOnStart) {
+            rebuild();
+        } else {
+            // no automatic build until one is requested or an atlas is mapped
+            attemptedVersion = snapshot.getVersion();
+            attemptedRules = rules.getRevision();
+            log.info("Layout atlas not built at startup (layout.atlas.build-on-start=false);"
+                    + " POST /admin/layout-atlas/rebuild to build it");
+        }
+    }
+
+    /**
+     * Cancel a running build and wait for it to stop, so it removes its
+     * temporary file before the JVM exits.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdownNow();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Layout atlas build did not stop within 30 s");
+        }
+        buildPool.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Precomputed layout for the room, or null if the atlas is disabled, not
+     * built for the snapshot's catalog content and the given rules, or has no
+     * matching grid point. The returned layout is a new object owned by the
+     * caller.
+     */
+    public RoomLayout lookup(Room room, CatalogSnapshot snapshot, PlacementRules rules) {
+        if (!enabled) return null;
+        LayoutAtlasFile atlas = current.get();
+        if (atlas == null || !atlas.matches(snapshot, rules, dimensionStep, budgetStep)) {
+            if ((atlas != null || buildOnStart)
+                    && (snapshot.getVersion() != attemptedVersion || rules.getRevision() != attemptedRules)) {
+                rebuild();
+            }
+            misses.increment();
+            return null;
+        }
+        boolean exact = atlas.isExactHit(room);
+        RoomLayout layout = exact || !exactOnly ? atlas.lookup(room, snapshot) : null;
+        (layout == null ? misses : exact ? exactHits : nearestHits).increment();
+        return layout;
+    }
+
+    /**
+     * Rebuild the atlas for the current catalog and rules in the background.
+     * Returns false if disabled, shutting down or a build is already running.
+     */
+    public boolean rebuild() {
+        if (!enabled || stopping || !building.compareAndSet(false, true)) return false;
+        try {
+            executor.execute(this::buildCurrent);
+        } catch (RejectedExecutionException e) {
+            building.set(false); // shut down meanwhile
+            return false;
+        }
+        return true;
+    }
+
+    /** Build until the atlas is for the catalog and rules current at the end of the build. */
+    private void buildCurrent() {
+        try {
+            CatalogSnapshot snapshot;
+            PlacementRules rules;
+            do {
+                snapshot = catalogService.current();
+                rules = ruleEngine.rules();
+                build(snapshot, rules);
+            } while (!stopping && (catalogService.current().getVersion() != snapshot.getVersion()
+                    || ruleEngine.rules() != rules));
+        } finally {
+            building.set(false);
+        }
+    }
+
+    public Stats getStats() {
+        LayoutAtlasFile atlas = current.get();
+        return new Stats(enabled, building.get(), atlas != null ? atlas.getCatalogVersion() : null,
+                atlas != null ? String.format("%016x", atlas.getRulesRevision()) : null,
+                atlas != null ? atlas.getRecordCount() : 0, file.toString(),
+                (long) exactHits.count(), (long) nearestHits.count(), (long) misses.count(), lastError);
+    }
+
+    private void build(CatalogSnapshot snapshot, PlacementRules rules) {
+        attemptedVersion = snapshot.getVersion();
+        attemptedRules = rules.getRevision();
+        long start = System.nanoTime();
+        try {
+            LayoutAtlasFile.build(file, snapshot, rules, ruleEngine, dimensionStep, budgetStep, buildPool,
+                    () -> stopping);
+            LayoutAtlasFile atlas = LayoutAtlasFile.open(file);
+            current.set(atlas);
+            lastError = null;
+            log.info("Built layout atlas {} ({} layouts, catalog version {}) in {} ms", file,
+                    atlas.getRecordCount(), atlas.getCatalogVersion(), (System.nanoTime() - start) / 1_000_000);
+        } catch (CancellationException e) {
+            log.info("Layout atlas build cancelled");
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Failed to build layout atlas {}", file, e);
+        }
+    }
+
+    /** Temporary files of builds that never finished (the process was killed mid-build). */
+    private void removeStaleTmpFiles() {
+        Path dir = file.getParent();
+        if (dir == null || !Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, LayoutAtlasFile.tmpGlob(file))) {
+            for (Path tmp : stale) {
+                Files.deleteIfExists(tmp);
+                log.info("Removed unfinished layout atlas build {}", tmp);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot remove unfinished layout atlas builds in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("layout.atlas.lookups")
+                .description("Layout atlas lookups by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Snapshot of atlas state for the admin endpoint.
+     */
+    public static final class Stats {
+        private final boolean enabled;
+        private final boolean building;
+        private final Long catalogVersion;
+        private final String rulesRevision;
+        private final int layouts;
+        private final String file;
+        private final long exactHits;
+        private final long nearestHits;
+        private final long misses;
+        private final String lastError;
+
+        Stats(boolean enabled, boolean building, Long catalogVersion, String rulesRevision, int layouts,
+              String file, long exactHits, long nearestHits, long misses, String lastError) {
+            this.enabled = enabled;
+            this.building = building;
+            this.catalogVersion = catalogVersion;
+            this.rulesRevision = rulesRevision;
+            this.layouts = layouts;
+            this.file = file;
+            this.exactHits = exactHits;
+            this.nearestHits = nearestHits;
+            this.misses = misses;
+            this.lastError = lastError;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public boolean isBuilding() {
+            return building;
+        }
+
+        public Long getCatalogVersion() {
+            return catalogVersion;
+        }
+
+        public String getRulesRevision() {
+            return rulesRevision;
+        }
+
+        public int getLayouts() {
+            return layouts;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public long getExactHits() {
+            return exactHits;
+        }
+
+        public long getNearestHits() {
+            return nearestHits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Binary layout atlas: greedy layouts for every point of a grid over the
+ * room input space, stored as fixed-size records in a memory-mapped file.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *  header   magic, format, catalog version, catalog size, record size,
+ *           min dimension, dimension step, dimension count,
+ *           min budget, budget step, budget count, message table offset,
+ *           placement rules revision, catalog content hash
+ *  records  [length][width][budget], RECORD_SIZE bytes each:
+ *           total cost (int), placed count (byte), error count (byte),
+ *           error message ids (MAX_ENTRIES bytes, padded),
+ *           MAX_ENTRIES x (catalog position | rotated bit (int), x, y (double))
+ *  messages count (int), then length-prefixed UTF-8 error messages
+ * </pre>
+ * Placed furniture is stored as its position in the snapshot's item list,
+ * so a file is only valid for the catalog content (see
+ * CatalogSnapshot.getContentHash) and placement rules it was built from;
+ * the catalog version is informational. Rule sets of more than MAX_ENTRIES rules cannot be stored.
+ * Lookups read the mapped records directly; instances are thread-safe.
+ */
+final class LayoutAtlasFile {
+
+    static final double MIN_DIMENSION = 3.0;
+    static final double MAX_DIMENSION = 15.0;
+    static final int MIN_BUDGET = 500;
+    static final int MAX_BUDGET = 10000;
+
+    private static final int MAGIC = 0x4C41544C; // "LATL"
+    private static final int FORMAT = 3;
+    private static final int HEADER_SIZE = 80;
+    static final int MAX_ENTRIES = 6;
+    private static final int ENTRY_SIZE = 4 + 8 + 8;
+    private static final int ENTRIES_OFFSET = 4 + 1 + 1 + 8;
+    private static final int RECORD_SIZE = ENTRIES_OFFSET + MAX_ENTRIES * ENTRY_SIZE;
+    private static final int ROTATED_BIT = 0x80000000;
+    private static final double EPSILON = 1e-9;
+
+    private final Path path;
+    private final MappedByteBuffer records;
+    private final long catalogVersion;
+    private final int catalogSize;
+    private final long contentHash;
+    private final long rulesRevision;
+    private final double dimensionStep;
+    private final int dimensionCount;
+    private final int budgetStep;
+    private final int budgetCount;
+    private final String[] messages;
+
+    private LayoutAtlasFile(Path path, MappedByteBuffer records, long catalogVersion, int catalogSize,
+                            long contentHash, long rulesRevision, double dimensionStep, int dimensionCount,
+                            int budgetStep, int budgetCount, String[] messages) {
+        this.path = path;
+        this.records = records;
+        this.catalogVersion = catalogVersion;
+        this.catalogSize = catalogSize;
+        this.contentHash = contentHash;
+        this.rulesRevision = rulesRevision;
+        this.dimensionStep = dimensionStep;
+        this.dimensionCount = dimensionCount;
+        this.budgetStep = budgetStep;
+        this.budgetCount = budgetCount;
+        this.messages = messages;
+    }
+
+    /**
+     * Run the rule engine for every grid point on the given pool and write
+     * the atlas to the given path. The file is written to a temporary file
+     * next to the target (see tmpGlob) and moved into place, so readers
+     * never see a partial atlas. The build stops between grid cells once
+     * cancelled returns true.
+     *
+     * @throws IllegalArgumentException if the grid is invalid, the file would exceed 2 GB
+     *         or there are more than MAX_ENTRIES rules
+     * @throws CancellationException if cancelled
+     */
+    static void build(Path target, CatalogSnapshot snapshot, PlacementRules rules, RuleEngine ruleEngine,
+                      double dimensionStep, int budgetStep, ForkJoinPool pool, BooleanSupplier cancelled)
+            throws IOException {
+        if (rules.size() > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Layout atlas records hold at most " + MAX_ENTRIES
+                    + " placements; the rules have " + rules.size());
+        }
+        int dimensionCount = count(MAX_DIMENSION - MIN_DIMENSION, dimensionStep);
+        int budgetCount = count(MAX_BUDGET - MIN_BUDGET, budgetStep);
+        long recordCount = (long) dimensionCount * dimensionCount * budgetCount;
+        long messagesOffset = HEADER_SIZE + recordCount * RECORD_SIZE;
+        if (messagesOffset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Layout atlas grid too fine: " + recordCount + " records");
+        }
+
+        Map<Furniture, Integer> positions = new IdentityHashMap<>();
+        List<Furniture> items = snapshot.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            positions.put(items.get(i), i);
+        }
+        Map<String, Integer> messageIds = new ConcurrentHashMap<>();
+        List<String> messageTable = new ArrayList<>();
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, messagesOffset);
+                // a parallel stream started from a pool task runs on that pool
+                pool.submit(() -> IntStream.range(0, dimensionCount * dimensionCount).parallel().forEach(cell -> {
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException("Layout atlas build cancelled");
+                    }
+                    double length = gridValue(MIN_DIMENSION, dimensionStep, cell / dimensionCount);
+                    double width = gridValue(MIN_DIMENSION, dimensionStep, cell % dimensionCount);
+                    for (int b = 0; b < budgetCount; b++) {
+                        Room room = new Room(length, width, MIN_BUDGET + b * budgetStep);
+                        RoomLayout layout = ruleEngine.generateLayout(room, snapshot.getIndex(), rules);
+                        int offset = HEADER_SIZE + ((cell * budgetCount) + b) * RECORD_SIZE;
+                        writeRecord(out, offset, layout, positions, messageIds, messageTable);
+                    }
+                })).join();
+                out.putInt(0, MAGIC);
+                out.putInt(4, FORMAT);
+                out.putLong(8, snapshot.getVersion());
+                out.putInt(16, items.size());
+                out.putInt(20, RECORD_SIZE);
+                out.putDouble(24, MIN_DIMENSION);
+                out.putDouble(32, dimensionStep);
+                out.putInt(40, dimensionCount);
+                out.putInt(44, MIN_BUDGET);
+                out.putInt(48, budgetStep);
+                out.putInt(52, budgetCount);
+                out.putLong(56, messagesOffset);
+                out.putLong(64, rules.getRevision());
+                out.putLong(72, snapshot.getContentHash());
+                out.force();
+
+                channel.position(messagesOffset);
+                channel.write(encode(messageTable));
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Glob matching the temporary files builds of the target write (and leave behind if the JVM dies). */
+    static String tmpGlob(Path target) {
+        return target.getFileName() + "*.tmp";
+    }
+
+    /**
+     * Map an existing atlas file.
+     *
+     * @throws IOException if the file is missing, truncated or not an atlas of this format
+     */
+    static LayoutAtlasFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a layout atlas: " + path);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT || map.getInt(20) != RECORD_SIZE
+                    || map.getDouble(24) != MIN_DIMENSION || map.getInt(44) != MIN_BUDGET) {
+                throw new IOException("Unsupported layout atlas format: " + path);
+            }
+            int dimensionCount = map.getInt(40);
+            int budgetCount = map.getInt(52);
+            long messagesOffset = map.getLong(56);
+            if (messagesOffset != HEADER_SIZE + (long) dimensionCount * dimensionCount * budgetCount * RECORD_SIZE
+                    || messagesOffset + 4 > size) {
+                throw new IOException("Truncated layout atlas: " + path);
+            }
+            ByteBuffer table = map.slice((int) messagesOffset, (int) (size - messagesOffset));
+            String[] messages = new String[table.getInt()];
+            for (int i = 0; i < messages.length; i++) {
+                byte[] bytes = new byte[table.getShort() & 0xFFFF];
+                table.get(bytes);
+                messages[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new LayoutAtlasFile(path, map, map.getLong(8), map.getInt(16), map.getLong(72), map.getLong(64),
+                    map.getDouble(32), dimensionCount, map.getInt(48), budgetCount, messages);
+        }
+    }
+
+    /**
+     * True if this atlas was built from a catalog with the same content as
+     * the given snapshot, the given rules and the given grid.
+     */
+    boolean matches(CatalogSnapshot snapshot, PlacementRules rules, double dimensionStep, int budgetStep) {
+        return contentHash == snapshot.getContentHash() && catalogSize == snapshot.getItems().size()
+                && rulesRevision == rules.getRevision()
+                && this.dimensionStep == dimensionStep && this.budgetStep == budgetStep;
+    }
+
+    boolean isExactHit(Room room) {
+        return onGrid(room.getLength() - MIN_DIMENSION, dimensionStep)
+                && onGrid(room.getWidth() - MIN_DIMENSION, dimensionStep)
+                && onGrid(room.getBudget() - MIN_BUDGET, budgetStep);
+    }
+
+    /**
+     * Layout stored at the nearest grid point that is not larger than the
+     * room in any dimension (so every stored placement fits the room and is
+     * within its budget), returned for the requested room. Null if the room
+     * is outside the atlas range. Items are resolved against the snapshot
+     * the atlas was built from.
+     */
+    RoomLayout lookup(Room room, CatalogSnapshot snapshot) {
+        int li = floorIndex(room.getLength() - MIN_DIMENSION, dimensionStep, dimensionCount);
+        int wi = floorIndex(room.getWidth() - MIN_DIMENSION, dimensionStep, dimensionCount);
+        int bi = floorIndex(room.getBudget() - MIN_BUDGET, budgetStep, budgetCount);
+        if (li < 0 || wi < 0 || bi < 0) return null;
+
+        int offset = HEADER_SIZE + (((li * dimensionCount) + wi) * budgetCount + bi) * RECORD_SIZE;
+        int totalCost = records.getInt(offset);
+        int placedCount = records.get(offset + 4);
+        int errorCount = records.get(offset + 5);
+
+        List<Furniture> items = snapshot.getItems();
+        List<FurniturePosition> placed = new ArrayList<>(placedCount);
+        for (int i = 0; i < placedCount; i++) {
+            int entry = offset + ENTRIES_OFFSET + i * ENTRY_SIZE;
+            int ref = records.getInt(entry);
+            placed.add(new FurniturePosition(items.get(ref & ~ROTATED_BIT),
+                    records.getDouble(entry + 4), records.getDouble(entry + 12), (ref & ROTATED_BIT) != 0));
+        }
+        RoomLayout layout = new RoomLayout();
+        layout.setRoom(room);
+        layout.setPlaced(placed);
+        layout.setTotalCost(totalCost);
+        layout.setRemainingBudget(Math.max(0, room.getBudget() - totalCost));
+        for (int i = 0; i < errorCount; i++) {
+            layout.addError(messages[records.get(offset + 6 + i) & 0xFF]);
+        }
+        return layout;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    long getRulesRevision() {
+        return rulesRevision;
+    }
+
+    int getRecordCount() {
+        return dimensionCount * dimensionCount * budgetCount;
+    }
+
+    private static void writeRecord(MappedByteBuffer out, int offset, RoomLayout layout,
+                                    Map<Furniture, Integer> positions, Map<String, Integer> messageIds,
+                                    List<String> messageTable) {
+        List<FurniturePosition> placed = layout.getPlaced();
+        List<String> errors = layout.getErrors();
+        if (placed.size() > MAX_ENTRIES || errors.size() > MAX_ENTRIES) {
+            throw new IllegalStateException("Layout does not fit an atlas record: " + placed.size()
+                    + " items, " + errors.size() + " errors");
+        }
+        out.putInt(offset, layout.getTotalCost());
+        out.put(offset + 4, (byte) placed.size());
+        out.put(offset + 5, (byte) errors.size());
+        for (int i = 0; i < errors.size(); i++) {
+            out.put(offset + 6 + i, (byte) messageId(errors.get(i), messageIds, messageTable));
+        }
+        for (int i = 0; i < placed.size(); i++) {
+            FurniturePosition p = placed.get(i);
+            int entry = offset + ENTRIES_OFFSET + i * ENTRY_SIZE;
+            int ref = positions.get(p.getFurniture());
+            out.putInt(entry, p.isRotated() ? ref | ROTATED_BIT : ref);
+            out.putDouble(entry + 4, p.getX());
+            out.putDouble(entry + 12, p.getY());
+        }
+    }
+
+    private static int messageId(String message, Map<String, Integer> messageIds, List<String> messageTable) {
+        Integer id = messageIds.get(message);
+        if (id != null) return id;
+        synchronized (messageTable) {
+            return messageIds.computeIfAbsent(message, m -> {
+                if (messageTable.size() == 256) {
+                    throw new IllegalStateException("Too many distinct layout errors for the atlas");
+                }
+                messageTable.add(m);
+                return messageTable.size() - 1;
+            });
+        }
+    }
+
+    private static ByteBuffer encode(List<String> messageTable) {
+        List<byte[]> encoded = new ArrayList<>(messageTable.size());
+        int size = 4;
+        for (String m : messageTable) {
+            byte[] bytes = m.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 2 + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        return buffer.flip();
+    }
+
+    private static int count(double range, double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Layout atlas step must be positive: " + step);
+        }
+        return (int) Math.floor(range / step + EPSILON) + 1;
+    }
+
+    /** Grid coordinate, rounded to 1 mm so points like 3.3 are not stored as 3.2999999. */
+    private static double gridValue(double min, double step, int index) {
+        return Math.round((min + index * step) * 1000) / 1000.0;
+    }
+
+    private static int floorIndex(double offset, double step, int count) {
+        if (offset < -EPSILON) return -1;
+        return Math.min(count - 1, (int) Math.floor(offset / step + EPSILON));
+    }
+
+    private static boolean onGrid(double offset, double step) {
+        double steps = offset / step;
+        return Math.abs(steps - Math.rint(steps)) < EPSILON;
+    }
+}
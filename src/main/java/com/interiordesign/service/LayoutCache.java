@@ -0,0 +1,276 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU + TTL cache of generated layouts.
+ *
+ * Keys are the room inputs quantized down to layout.cache.length-step /
+ * budget-step, plus the catalog version and placement rules revision. Layouts are computed for the
+ * quantized room, so a cached result always fits the requested room and
+ * budget. Concurrent misses on the same key are coalesced: one caller
+ * computes, the others wait for its result.
+ */
+@Component
+public class LayoutCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final double lengthStep;
+    private final int budgetStep;
+
+    private final Map<Key, Entry> entries;
+    private final ConcurrentHashMap<Key, CompletableFuture<RoomLayout>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LayoutCache(@Value("${layout.cache.enabled:true}") boolean enabled,
+                       @Value("${layout.cache.max-entries:10000}") int maxEntries,
+                       @Value("${layout.cache.ttl-seconds:600}") long ttlSeconds,
+                       @Value("${layout.cache.length-step:0.1}") double lengthStep,
+                       @Value("${layout.cache.budget-step:1}") int budgetStep) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.lengthStep = lengthStep;
+        this.budgetStep = Math.max(1, budgetStep);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > LayoutCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached layout for the room, computing it with loader (which receives the
+     * quantized room) on a miss. The returned layout is a private copy that
+     * carries the caller's room and remaining budget.
+     */
+    public RoomLayout get(Room room, long catalogVersion, long rulesRevision, Function<Room, RoomLayout> loader) {
+        Room quantized = quantize(room);
+        if (!enabled) {
+            return copyFor(room, loader.apply(quantized));
+        }
+        Key key = new Key(quantized, catalogVersion, rulesRevision);
+
+        RoomLayout cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return copyFor(room, cached);
+        }
+
+        CompletableFuture<RoomLayout> mine = new CompletableFuture<>();
+        CompletableFuture<RoomLayout> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return copyFor(room, join(existing));
+        }
+
+        try {
+            // a caller that finished between our lookup and putIfAbsent has stored it by now
+            RoomLayout stored = lookup(key);
+            if (stored != null) {
+                hits.incrementAndGet();
+                mine.complete(stored);
+                return copyFor(room, stored);
+            }
+            misses.incrementAndGet();
+            RoomLayout layout = loader.apply(quantized);
+            store(key, layout);
+            mine.complete(layout);
+            return copyFor(room, layout);
+        } catch (Throwable e) {
+            // Errors too: callers parked in join(existing) must not wait forever
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.get(), misses.get(), coalesced.get(), evictions.get(), size);
+    }
+
+    private RoomLayout lookup(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) return null;
+            if (System.nanoTime() - entry.storedAt > ttlNanos) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.layout;
+        }
+    }
+
+    private void store(Key key, RoomLayout layout) {
+        synchronized (entries) {
+            entries.put(key, new Entry(layout, System.nanoTime()));
+        }
+    }
+
+    private static RoomLayout join(CompletableFuture<RoomLayout> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    Room quantize(Room room) {
+        double length = floorToStep(room.getLength(), lengthStep);
+        double width = floorToStep(room.getWidth(), lengthStep);
+        int budget = room.getBudget() / budgetStep * budgetStep;
+        return new Room(length, width, budget);
+    }
+
+    private static double floorToStep(double value, double step) {
+        if (step <= 0) return value;
+        long steps = (long) Math.floor(value / step + 1e-9);
+        // round away binary noise such as 6.300000000000001
+        return Math.round(steps * step * 1e6) / 1e6;
+    }
+
+    private static RoomLayout copyFor(Room room, RoomLayout source) {
+        RoomLayout copy = new RoomLayout();
+        copy.setRoom(room);
+        copy.setPlaced(new ArrayList<>(source.getPlaced()));
+        copy.setTotalCost(source.getTotalCost());
+        copy.setRemainingBudget(Math.max(0, room.getBudget() - source.getTotalCost()));
+        for (String error : source.getErrors()) {
+            copy.addError(error);
+        }
+        return copy;
+    }
+
+    private static final class Entry {
+        final RoomLayout layout;
+        final long storedAt;
+
+        Entry(RoomLayout layout, long storedAt) {
+            this.layout = layout;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private static final class Key {
+        final double length;
+        final double width;
+        final int budget;
+        final long catalogVersion;
+        final long rulesRevision;
+
+        Key(Room room, long catalogVersion, long rulesRevision) {
+            this.length = room.getLength();
+            this.width = room.getWidth();
+            this.budget = room.getBudget();
+            this.catalogVersion = catalogVersion;
+            this.rulesRevision = rulesRevision;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return Double.compare(length, k.length) == 0 && Double.compare(width, k.width) == 0
+                    && budget == k.budget && catalogVersion == k.catalogVersion
+                    && rulesRevision == k.rulesRevision;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, width, budget, catalogVersion, rulesRevision);
+        }
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long coalesced;
+        private final long evictions;
+        private final int size;
+
+        Stats(long hits, long misses, long coalesced, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /** Requests that waited on another caller's in-flight computation. */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRatio() {
+            long total = hits + misses + coalesced;
+            return total == 0 ? 0.0 : (double) (hits + coalesced) / total;
+        }
+    }
+}
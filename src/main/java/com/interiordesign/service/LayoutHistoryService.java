@@ -0,0 +1,250 @@
+package com.interiordesign.service;
+
+import com.interiordesign.dao.LayoutHistoryDAO;
+import com.interiordesign.model.LayoutHistoryEntry;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persists generated layouts to the layout history tables without putting
+ * database writes on the request path.
+ *
+ * record() assigns the layout an id and hands it to a bounded queue; a single
+ * background writer drains the queue in batches (layout.history.batch-size)
+ * and inserts each batch with multi-row statements in one transaction. When
+ * the queue is full the caller waits up to layout.history.offer-timeout-ms
+ * and then drops the layout (it keeps a null id). Queued layouts are flushed
+ * on shutdown; a record() racing shutdown is either queued before the final
+ * drain or refused, never queued after it. Until its batch is written a layout is kept by id, so find()
+ * answers for it right after record() returns. Request-path reads and id allocation go through the
+ * DatabaseBulkhead; when it is full, record() drops the layout and find()
+ * throws DatabaseBusyException.
+ *
+ * Meters: layout.history.written, layout.history.dropped,
+ * layout.history.failed (layouts lost to write errors), layout.history.queue.
+ */
+@Service
+public class LayoutHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(LayoutHistoryService.class);
+
+    private final LayoutHistoryDAO historyDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<LayoutHistoryEntry> queue;
+    // queued or being written, by id; removed once the batch insert has finished
+    private final Map<Long, LayoutHistoryEntry> pending = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    // current block of ids from the database sequence; a lock rather than
+    // synchronized so virtual threads waiting on the sequence query do not pin their carrier
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long idLimit;
+
+    public LayoutHistoryService(LayoutHistoryDAO historyDAO, TransactionTemplate transactionTemplate,
+                                DatabaseBulkhead databaseBulkhead, MeterRegistry registry,
+                                @Value("${layout.history.enabled:true}") boolean enabled,
+                                @Value("${layout.history.queue-capacity:10000}") int queueCapacity,
+                                @Value("${layout.history.batch-size:500}") int batchSize,
+                                @Value("${layout.history.flush-interval-ms:200}") long flushIntervalMs,
+                                @Value("${layout.history.offer-timeout-ms:0}") long offerTimeoutMs) {
+        this.historyDAO = historyDAO;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseBulkhead = databaseBulkhead;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.written = Counter.builder("layout.history.written")
+                .description("Layouts written to the layout history tables")
+                .register(registry);
+        this.dropped = Counter.builder("layout.history.dropped")
+                .description("Layouts not persisted because the write-behind queue was full")
+                .register(registry);
+        this.failed = Counter.builder("layout.history.failed")
+                .description("Layouts lost because their batch insert failed")
+                .register(registry);
+        Gauge.builder("layout.history.queue", queue, BlockingQueue::size)
+                .description("Layouts waiting to be written")
+                .register(registry);
+
+        this.writer = new Thread(this::drain, "layout-history-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Queue the layout for persistence and set its id. Returns false (and
+     * leaves the id null) if history is disabled or the queue stayed full.
+     * The layout must not be modified afterwards.
+     */
+    public boolean record(RoomLayout layout, long catalogVersion) {
+        if (!enabled) return false;
+        // shared with other record() calls; shutdown() takes it exclusively, so every layout
+        // queued while running is in the queue before the writer's final drain
+        stateLock.readLock().lock();
+        try {
+            return enqueue(layout, catalogVersion);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private boolean enqueue(RoomLayout layout, long catalogVersion) {
+        if (!running) return false;
+        long id;
+        try {
+            id = nextId();
+        } catch (DatabaseBusyException e) {
+            dropped.increment(); // counted by db.bulkhead.rejected; not worth a log line per request
+            return false;
+        } catch (DataAccessException e) {
+            log.warn("Layout history id allocation failed; layout not recorded: {}", e.getMessage());
+            dropped.increment();
+            return false;
+        }
+        LayoutHistoryEntry entry = new LayoutHistoryEntry(id, layout, catalogVersion, Instant.now());
+        layout.setId(id);
+        pending.put(id, entry);
+        boolean queued;
+        try {
+            queued = offerTimeoutMs > 0
+                    ? queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)
+                    : queue.offer(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            pending.remove(id);
+            layout.setId(null);
+            dropped.increment();
+        }
+        return queued;
+    }
+
+    /**
+     * Recorded layout by id (a copy if it is still waiting to be written), or
+     * null if unknown or dropped.
+     *
+     * @throws DatabaseBusyException if the layout is not pending and the database bulkhead stayed full
+     */
+    public RoomLayout find(long id) {
+        LayoutHistoryEntry entry = pending.get(id);
+        if (entry != null) {
+            return copyOf(entry.getLayout());
+        }
+        return databaseBulkhead.call(() -> historyDAO.find(id));
+    }
+
+    /**
+     * Stop accepting layouts and wait for the writer to flush the queue.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        if (!enabled) return;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("Layout history shutdown: {} queued layouts not written", queue.size());
+        }
+    }
+
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId == idLimit) {
+                nextId = databaseBulkhead.call(historyDAO::nextIdBlock);
+                idLimit = nextId + LayoutHistoryDAO.ID_BLOCK_SIZE;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<LayoutHistoryEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LayoutHistoryEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // keep draining until shutdown() has been called and the queue is empty
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<LayoutHistoryEntry> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> historyDAO.insert(batch));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} layouts to history", batch.size(), e);
+        } finally {
+            for (LayoutHistoryEntry entry : batch) {
+                pending.remove(entry.getId());
+            }
+        }
+    }
+
+    /** Same fields as a layout read back from the history tables. */
+    private static RoomLayout copyOf(RoomLayout source) {
+        RoomLayout copy = new RoomLayout();
+        copy.setId(source.getId());
+        copy.setRoom(source.getRoom());
+        copy.setRole(source.getRole());
+        copy.setPlaced(new ArrayList<>(source.getPlaced()));
+        copy.setTotalCost(source.getTotalCost());
+        copy.setRemainingBudget(source.getRemainingBudget());
+        for (String error : source.getErrors()) {
+            copy.addError(error);
+        }
+        return copy;
+    }
+}
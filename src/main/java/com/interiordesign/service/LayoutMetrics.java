@@ -0,0 +1,81 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the layout pipeline. Timers publish percentile
+ * histograms so p99 can be computed and alerted on from Prometheus.
+ *
+ * - catalog.load: reading the furniture catalog from the database
+ * - layout.generate{engine}: one engine run (cache misses only)
+ * - layout.placements{category}: items placed in served layouts
+ * - layout.rule.failures{reason}: RoomLayout errors in served layouts
+ */
+@Component
+public class LayoutMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer catalogLoad;
+    private final Map<EngineMode, Timer> generate = new EnumMap<>(EngineMode.class);
+
+    public LayoutMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.catalogLoad = Timer.builder("catalog.load")
+                .description("Time to load the furniture catalog from the database")
+                .publishPercentileHistogram()
+                .register(registry);
+        for (EngineMode mode : EngineMode.values()) {
+            generate.put(mode, Timer.builder("layout.generate")
+                    .description("Time spent in the layout engine per computed layout")
+                    .tag("engine", mode.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    public <T> T timeCatalogLoad(Supplier<T> load) {
+        return catalogLoad.record(load);
+    }
+
+    public RoomLayout timeGenerate(EngineMode mode, Supplier<RoomLayout> engine) {
+        return generate.get(mode).record(engine);
+    }
+
+    /**
+     * Count placements and rule failures of a layout that is being served.
+     * Failure reasons are the fixed messages written by the engines, so the
+     * tag stays low-cardinality.
+     */
+    public void recordOutcomes(RoomLayout layout) {
+        for (FurniturePosition p : layout.getPlaced()) {
+            placements(p.getFurniture().getCategory()).increment();
+        }
+        for (String reason : layout.getErrors()) {
+            failures(reason).increment();
+        }
+    }
+
+    private Counter placements(String category) {
+        return Counter.builder("layout.placements")
+                .description("Furniture items placed in served layouts")
+                .tag("category", category == null ? "unknown" : category.toLowerCase(Locale.ROOT))
+                .register(registry);
+    }
+
+    private Counter failures(String reason) {
+        return Counter.builder("layout.rule.failures")
+                .description("Placement rule failures reported in served layouts")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -1,33 +1,272 @@
 package com.interiordesign.service;
 
-import com.interiordesign.dao.FurnitureDAO;
 import com.interiordesign.model.Furniture;
+import com.interiordesign.model.RankedLayout;
 import com.interiordesign.model.Room;
 import com.interiordesign.model.RoomLayout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
- * LayoutService coordinates DAO + RuleEngine.
+ * LayoutService coordinates the catalog snapshot + RuleEngine / LayoutSolver.
+ * Snapshot layouts are looked up in the layout atlas, then the layout cache,
+ * and only then computed. The placement rules are read once per request, so
+ * lookups and computation agree on them while the rules are being swapped.
+ *
+ * With catalog.source=database, catalog queries go through the
+ * DatabaseBulkhead. When it is full the layout is answered from the
+ * in-memory snapshot (layout cache first) and flagged with DATABASE_BUSY
+ * instead of waiting for a connection. Queries that overlap a catalog write
+ * are repeated at the new version (CatalogChangedException).
+ *
+ * Catalog queries and computed layouts emit JFR events (CatalogFetchEvent,
+ * LayoutSolveEvent) alongside the RuleEngine's PlacementEvents.
  */
 @Service
 public class LayoutService {
 
-    private final FurnitureDAO furnitureDAO;
+    static final String DATABASE_BUSY = "Catalog database busy; layout based on the in-memory catalog.";
+    private static final int MAX_QUERY_ATTEMPTS = 3;
+
+    private final CatalogService catalogService;
     private final RuleEngine ruleEngine;
+    private final LayoutSolver layoutSolver;
+    private final LayoutCache layoutCache;
+    private final LayoutAtlas layoutAtlas;
+    private final LayoutMetrics layoutMetrics;
+    private final LayoutHistoryService layoutHistory;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final EngineMode engineMode;
+    private final CatalogSource catalogSource;
 
-    public LayoutService(FurnitureDAO furnitureDAO, RuleEngine ruleEngine) {
-        this.furnitureDAO = furnitureDAO;
+    public LayoutService(CatalogService catalogService, RuleEngine ruleEngine, LayoutSolver layoutSolver,
+                         LayoutCache layoutCache, LayoutAtlas layoutAtlas, LayoutMetrics layoutMetrics,
+                         LayoutHistoryService layoutHistory, DatabaseBulkhead databaseBulkhead,
+                         @Value("${layout.engine.mode:greedy}") EngineMode engineMode,
+                         @Value("${catalog.source:snapshot}") CatalogSource catalogSource) {
+        this.catalogService = catalogService;
         this.ruleEngine = ruleEngine;
+        this.layoutSolver = layoutSolver;
+        this.layoutCache = layoutCache;
+        this.layoutAtlas = layoutAtlas;
+        this.layoutMetrics = layoutMetrics;
+        this.layoutHistory = layoutHistory;
+        this.databaseBulkhead = databaseBulkhead;
+        this.engineMode = engineMode;
+        this.catalogSource = catalogSource;
     }
 
     public RoomLayout createLayout(Room room) {
-        List<Furniture> list = furnitureDAO.findAll();
-        return ruleEngine.generateLayout(room, list);
+        RoomLayout layout;
+        long version;
+        PlacementRules rules = ruleEngine.rules();
+        if (catalogSource == CatalogSource.DATABASE) {
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    long at = databaseBulkhead.call(catalogService::databaseVersion);
+                    try {
+                        layout = layoutCache.isEnabled()
+                                ? layoutCache.get(room, at, rules.getRevision(),
+                                        quantized -> compute(quantized, queryIndex(quantized, rules, at), rules,
+                                                LayoutSolveEvent.LAYOUT))
+                                : compute(room, queryIndex(room, rules, at), rules, LayoutSolveEvent.LAYOUT);
+                        version = at;
+                        break;
+                    } catch (CatalogChangedException e) {
+                        if (attempt == MAX_QUERY_ATTEMPTS) throw e;
+                    }
+                }
+            } catch (DatabaseBusyException e) {
+                CatalogSnapshot snapshot = fallbackSnapshot(e);
+                version = snapshot.getVersion();
+                layout = fromSnapshot(room, snapshot, rules);
+                layout.addError(DATABASE_BUSY);
+            }
+        } else {
+            CatalogSnapshot snapshot = catalogService.current();
+            version = snapshot.getVersion();
+            layout = fromSnapshot(room, snapshot, rules);
+        }
+        layoutMetrics.recordOutcomes(layout);
+        layoutHistory.record(layout, version);
+        return layout;
+    }
+
+    /** Atlas, then layout cache, then the engine, against the snapshot. Returns a layout owned by the caller. */
+    private RoomLayout fromSnapshot(Room room, CatalogSnapshot snapshot, PlacementRules rules) {
+        RoomLayout layout = layoutAtlas.lookup(room, snapshot, rules);
+        if (layout != null) return layout;
+        return layoutCache.isEnabled()
+                ? layoutCache.get(room, snapshot.getVersion(), rules.getRevision(),
+                        quantized -> compute(quantized, snapshot.getIndex(), rules, LayoutSolveEvent.LAYOUT))
+                : compute(room, snapshot.getIndex(), rules, LayoutSolveEvent.LAYOUT);
+    }
+
+    private CatalogIndex queryIndex(Room room, PlacementRules rules, long version) {
+        CatalogFetchEvent event = new CatalogFetchEvent();
+        event.begin();
+        CatalogIndex index = null;
+        String outcome = CatalogFetchEvent.FAILED;
+        try {
+            index = databaseBulkhead.call(() -> catalogService.queryIndex(room, rules.getCategories(), version));
+            outcome = CatalogFetchEvent.OK;
+            return index;
+        } catch (CatalogChangedException e) {
+            outcome = CatalogFetchEvent.CHANGED;
+            throw e;
+        } catch (DatabaseBusyException e) {
+            outcome = CatalogFetchEvent.BUSY;
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.version = version;
+                event.outcome = outcome;
+                for (String category : rules.getCategories()) {
+                    event.items += index == null ? 0 : index.category(category).size();
+                }
+                event.commit();
+            }
+        }
+    }
+
+    /** Snapshot to degrade to when the database is busy; rethrows if none is loaded yet. */
+    private CatalogSnapshot fallbackSnapshot(DatabaseBusyException e) {
+        CatalogSnapshot snapshot = catalogService.loaded();
+        if (snapshot == null) throw e;
+        return snapshot;
+    }
+
+    private RoomLayout compute(Room room, CatalogIndex catalog, PlacementRules rules, String kind) {
+        LayoutSolveEvent event = new LayoutSolveEvent();
+        event.begin();
+        RoomLayout layout = layoutMetrics.timeGenerate(engineMode, () -> engineMode == EngineMode.OPTIMIZING
+                ? layoutSolver.solve(room, catalog, rules)
+                : ruleEngine.generateLayout(room, catalog, rules));
+        commit(event, kind, engineMode, rules, layout);
+        return layout;
+    }
+
+    /** Fill in and commit a solve event if JFR records it; a no-op otherwise. */
+    private static void commit(LayoutSolveEvent event, String kind, EngineMode engine, PlacementRules rules,
+                               RoomLayout layout) {
+        if (!event.shouldCommit()) return;
+        event.kind = kind;
+        event.engine = engine.name().toLowerCase(Locale.ROOT);
+        event.length = layout.getRoom().getLength();
+        event.width = layout.getRoom().getWidth();
+        event.budget = layout.getRoom().getBudget();
+        event.rulesRevision = rules.getRevisionHex();
+        event.placed = layout.getPlaced().size();
+        event.totalCost = layout.getTotalCost();
+        event.errors = String.join("\n", layout.getErrors());
+        event.commit();
+    }
+
+    /**
+     * Layout for an edited room (new size and/or budget) that keeps the
+     * placements of a previous layout that are still valid and only re-runs
+     * the affected rules (RuleEngine.relayout); the catalog is the current
+     * snapshot, not reloaded. The optimizing engine solves the room again.
+     * A floor plan room is laid out with its role's rules, or all rules if
+     * the current rules no longer define the role. The result is recorded
+     * like any other layout.
+     */
+    public RoomLayout relayout(RoomLayout previous, Room room) {
+        PlacementRules allRules = ruleEngine.rules();
+        String role = previous.getRole() != null && allRules.forRole(previous.getRole()) != null
+                ? previous.getRole() : null;
+        PlacementRules rules = role != null ? allRules.forRole(role) : allRules;
+        CatalogRead catalog = readCatalog(room, rules);
+        RoomLayout layout;
+        if (engineMode == EngineMode.OPTIMIZING) {
+            layout = compute(room, catalog.index, rules, LayoutSolveEvent.RELAYOUT);
+        } else {
+            LayoutSolveEvent event = new LayoutSolveEvent();
+            event.begin();
+            layout = layoutMetrics.timeGenerate(EngineMode.GREEDY,
+                    () -> ruleEngine.relayout(room, catalog.index, rules, previous.getPlaced()));
+            commit(event, LayoutSolveEvent.RELAYOUT, EngineMode.GREEDY, rules, layout);
+        }
+        layout.setRole(role);
+        if (role == null && previous.getRole() != null) {
+            layout.addError("Room role '" + previous.getRole() + "' is no longer in the placement rules;"
+                    + " laid out with all rules.");
+        }
+        if (catalog.degraded) {
+            layout.addError(DATABASE_BUSY);
+        }
+        layoutMetrics.recordOutcomes(layout);
+        layoutHistory.record(layout, catalog.version);
+        return layout;
+    }
+
+    /**
+     * Up to k distinct layouts for the room, best first, from the optimizing
+     * solver whatever layout.engine.mode is (LayoutSolver.solveTopK). Not
+     * cached; every alternative is recorded and gets its own id, so the
+     * chosen one can be fetched, rendered or re-laid out later.
+     */
+    public List<RankedLayout> createAlternatives(Room room, int k) {
+        PlacementRules rules = ruleEngine.rules();
+        CatalogRead catalog = readCatalog(room, rules);
+        LayoutSolveEvent event = new LayoutSolveEvent();
+        event.begin();
+        List<RankedLayout> ranked = layoutSolver.solveTopK(room, catalog.index, rules, k);
+        commit(event, LayoutSolveEvent.ALTERNATIVES, EngineMode.OPTIMIZING, rules, ranked.get(0).getLayout());
+        for (RankedLayout alternative : ranked) {
+            if (catalog.degraded) {
+                alternative.getLayout().addError(DATABASE_BUSY);
+            }
+            layoutHistory.record(alternative.getLayout(), catalog.version);
+        }
+        layoutMetrics.recordOutcomes(ranked.get(0).getLayout());
+        return ranked;
+    }
+
+    /** Index to compute a layout from: per-room queries or the snapshot, as for createLayout. */
+    private CatalogRead readCatalog(Room room, PlacementRules rules) {
+        if (catalogSource == CatalogSource.DATABASE) {
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    long at = databaseBulkhead.call(catalogService::databaseVersion);
+                    try {
+                        return new CatalogRead(queryIndex(room, rules, at), at, false);
+                    } catch (CatalogChangedException e) {
+                        if (attempt == MAX_QUERY_ATTEMPTS) throw e;
+                    }
+                }
+            } catch (DatabaseBusyException e) {
+                CatalogSnapshot snapshot = fallbackSnapshot(e);
+                return new CatalogRead(snapshot.getIndex(), snapshot.getVersion(), true);
+            }
+        }
+        CatalogSnapshot snapshot = catalogService.current();
+        return new CatalogRead(snapshot.getIndex(), snapshot.getVersion(), false);
+    }
+
+    /**
+     * Previously generated layout from the layout history, or null.
+     */
+    public RoomLayout findLayout(long id) {
+        return layoutHistory.find(id);
     }
 
     public List<Furniture> getAllFurniture() {
-        return furnitureDAO.findAll();
+        return catalogService.current().getItems();
+    }
+
+    private static final class CatalogRead {
+        final CatalogIndex index;
+        final long version;
+        final boolean degraded; // database busy, index from the snapshot
+
+        CatalogRead(CatalogIndex index, long version, boolean degraded) {
+            this.index = index;
+            this.version = version;
+            this.degraded = degraded;
+        }
     }
 }
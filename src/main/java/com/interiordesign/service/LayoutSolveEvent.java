@@ -0,0 +1,52 @@
+package com.interiordesign.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for computing one layout (or one set of alternatives), from the
+ * catalog index to the finished RoomLayout. Cached and atlas layouts are not
+ * computed and emit none.
+ */
+@Name("com.interiordesign.LayoutSolve")
+@Label("Layout Solve")
+@Category({"Interior Design", "Layout"})
+@Description("Layout computed by the rule engine or the solver")
+@StackTrace(false)
+final class LayoutSolveEvent extends jdk.jfr.Event {
+
+    static final String LAYOUT = "layout";
+    static final String RELAYOUT = "relayout";
+    static final String ALTERNATIVES = "alternatives";
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Length")
+    double length;
+
+    @Label("Width")
+    double width;
+
+    @Label("Budget")
+    int budget;
+
+    @Label("Rules Revision")
+    String rulesRevision;
+
+    @Label("Items Placed")
+    int placed;
+
+    @Label("Total Cost")
+    int totalCost;
+
+    @Label("Errors")
+    @Description("RoomLayout errors, one per line; for alternatives those of the best one")
+    String errors;
+}
@@ -0,0 +1,330 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.RankedLayout;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget-optimizing alternative to the greedy RuleEngine.
+ *
+ * Searches combinations of catalog items (one or none per category, applied
+ * in rule order with the same placement rules) for the highest
+ * score within the room budget. Branches are pruned by cost (items are tried
+ * cheapest first, so the loop stops at the first unaffordable one), geometry
+ * (items that do not fit the room or collide are never expanded) and an
+ * optimistic score bound. The upper levels of the tree are split across a
+ * fork/join pool; once the time budget is spent the best layout found so far
+ * is returned.
+ *
+ * solveTopK keeps the k best leaves instead of one; all tasks prune against
+ * the k-th best score so far, so a larger k only widens the search by the
+ * branches that can still beat it. Leaves are distinct item choices, so the
+ * alternatives always differ in at least one item.
+ */
+@Component
+public class LayoutSolver {
+
+    /**
+     * Score for spending the whole budget; scaled by totalCost / budget.
+     * Placing an item (each rule's weight) is worth more than spending the
+     * remaining budget on pricier ones.
+     */
+    private static final double VALUE_WEIGHT = 5.0;
+
+    /** Tree levels above this depth (or all of them, for fewer rules) are forked as separate tasks. */
+    private static final int SPLIT_DEPTH = 2;
+
+    private final RuleEngine ruleEngine;
+    private final ForkJoinPool pool;
+    private final long timeBudgetNanos;
+    private final int candidatesPerCategory;
+    private final WorkspacePool workspaces;
+
+    public LayoutSolver(RuleEngine ruleEngine,
+                        @Value("${layout.solver.time-budget-ms:200}") long timeBudgetMs,
+                        @Value("${layout.solver.candidates-per-category:8}") int candidatesPerCategory,
+                        @Value("${layout.solver.parallelism:0}") int parallelism) {
+        this.ruleEngine = ruleEngine;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        this.candidatesPerCategory = Math.max(1, candidatesPerCategory);
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(workers);
+        this.workspaces = new WorkspacePool(2 * workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public RoomLayout solve(Room room, CatalogIndex catalog) {
+        return solve(room, catalog, ruleEngine.rules());
+    }
+
+    public RoomLayout solve(Room room, CatalogIndex catalog, PlacementRules rules) {
+        return solveTopK(room, catalog, rules, 1).get(0).getLayout();
+    }
+
+    /**
+     * Up to k distinct layouts, best score first. Fewer are returned if the
+     * room admits fewer combinations (or the time budget ran out first).
+     */
+    public List<RankedLayout> solveTopK(Room room, CatalogIndex catalog, PlacementRules rules, int k) {
+        Search search = new Search(room, catalog, rules, Math.max(1, k), System.nanoTime() + timeBudgetNanos);
+        PlacementWorkspace root = new PlacementWorkspace();
+        ruleEngine.reset(root, search.roomW, search.roomH);
+        pool.invoke(new Node(search, 0, root, 0, 0));
+
+        if (search.count == 0) {
+            // time budget too small to reach any leaf; greedy is always cheap
+            RoomLayout greedy = ruleEngine.generateLayout(room, catalog, rules);
+            return List.of(new RankedLayout(1, search.score(greedy.getTotalCost(), placedWeight(greedy, rules)),
+                    greedy));
+        }
+
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < search.count; slot++) {
+            slots.add(slot);
+        }
+        slots.sort(Comparator.comparingDouble((Integer slot) -> search.keptScore[slot]).reversed());
+        List<RankedLayout> ranked = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            RoomLayout layout = toLayout(room, rules, search, slot);
+            ranked.add(new RankedLayout(ranked.size() + 1, search.keptScore[slot], layout));
+        }
+        return ranked;
+    }
+
+    private RoomLayout toLayout(Room room, PlacementRules rules, Search search, int slot) {
+        PlacementWorkspace placed = search.kept[slot];
+        int cost = search.keptCost[slot];
+        RoomLayout layout = new RoomLayout();
+        layout.setRoom(room);
+        layout.setPlaced(placed.toPositions());
+        layout.setTotalCost(cost);
+        layout.setRemainingBudget(Math.max(0, search.budget - cost));
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (rules.step(rule).required && !placed.contains(rule)) {
+                layout.addError(rules.step(rule).solverMessage);
+            }
+        }
+        if (search.timedOut) {
+            layout.addError("Solver time budget exhausted; showing best layout found so far.");
+        }
+        return layout;
+    }
+
+    /** Rule weights of the items in a layout, matching each placed item to one step of its category. */
+    private static int placedWeight(RoomLayout layout, PlacementRules rules) {
+        boolean[] used = new boolean[rules.size()];
+        int weight = 0;
+        for (FurniturePosition p : layout.getPlaced()) {
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (!used[rule] && rules.step(rule).category.equalsIgnoreCase(p.getFurniture().getCategory())) {
+                    used[rule] = true;
+                    weight += rules.step(rule).weight;
+                    break;
+                }
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Per-request search state shared by all tasks of one solve.
+     */
+    private final class Search {
+        final double roomW;
+        final double roomH;
+        final int budget;
+        final int k;
+        final long deadline;
+        final PlacementStep[] steps;
+        final Furniture[][] candidates;
+        final int[] suffixWeight;
+        final int[] suffixMaxPrice;
+
+        volatile boolean timedOut;
+        /** Score a leaf must beat: the k-th best so far, or -1 until k leaves are kept. */
+        volatile double threshold = -1;
+        final PlacementWorkspace[] kept;
+        final double[] keptScore;
+        final int[] keptCost;
+        int count;
+
+        Search(Room room, CatalogIndex catalog, PlacementRules rules, int k, long deadline) {
+            this.roomW = room.getLength();
+            this.roomH = room.getWidth();
+            this.budget = room.getBudget();
+            this.k = k;
+            this.deadline = deadline;
+            this.kept = new PlacementWorkspace[k];
+            this.keptScore = new double[k];
+            this.keptCost = new int[k];
+
+            int n = rules.size();
+            this.steps = new PlacementStep[n];
+            this.candidates = new Furniture[n][];
+            this.suffixWeight = new int[n + 1];
+            this.suffixMaxPrice = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                steps[i] = rules.step(i);
+                candidates[i] = selectCandidates(catalog.category(steps[i].category));
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                Furniture[] c = candidates[i];
+                suffixWeight[i] = suffixWeight[i + 1] + (c.length > 0 ? steps[i].weight : 0);
+                suffixMaxPrice[i] = suffixMaxPrice[i + 1] + (c.length > 0 ? c[c.length - 1].getPrice() : 0);
+            }
+        }
+
+        /**
+         * Affordable items that fit the room box in either orientation, thinned to an evenly spread
+         * sample across the price range (cheapest and priciest always kept).
+         */
+        private Furniture[] selectCandidates(CategoryIndex index) {
+            List<Integer> slots = new ArrayList<>();
+            int affordable = index.countPricedAtMost(budget);
+            for (int slot = 0; slot < affordable; slot++) {
+                double w = index.width(slot);
+                double d = index.depth(slot);
+                if ((w <= roomW && d <= roomH) || (d <= roomW && w <= roomH)) {
+                    slots.add(slot);
+                }
+            }
+            int k = Math.min(candidatesPerCategory, slots.size());
+            Furniture[] result = new Furniture[k];
+            for (int i = 0; i < k; i++) {
+                int pick = k == 1 ? 0 : (int) Math.round(i * (slots.size() - 1) / (double) (k - 1));
+                result[i] = index.get(slots.get(pick));
+            }
+            return result;
+        }
+
+        double score(int cost, int weight) {
+            return weight + VALUE_WEIGHT * cost / budget;
+        }
+
+        double bound(int depth, int cost, int weight) {
+            int reachableCost = Math.min(budget, cost + suffixMaxPrice[depth]);
+            return score(reachableCost, weight + suffixWeight[depth]);
+        }
+
+        synchronized void offer(PlacementWorkspace placed, int cost, int weight) {
+            double s = score(cost, weight);
+            int slot;
+            if (count < k) {
+                slot = count++;
+                kept[slot] = new PlacementWorkspace();
+            } else {
+                slot = worst();
+                if (s <= keptScore[slot]) return;
+            }
+            ruleEngine.copy(placed, kept[slot]);
+            keptScore[slot] = s;
+            keptCost[slot] = cost;
+            if (count == k) {
+                threshold = keptScore[worst()];
+            }
+        }
+
+        private int worst() {
+            int worst = 0;
+            for (int slot = 1; slot < count; slot++) {
+                if (keptScore[slot] < keptScore[worst]) worst = slot;
+            }
+            return worst;
+        }
+    }
+
+    /**
+     * One subtree of the search. Upper-level nodes own a snapshot of the
+     * placements so far; leaf tasks copy it into a pooled workspace and
+     * search depth-first without allocating.
+     */
+    private final class Node extends RecursiveAction {
+        private final Search search;
+        private final int depth;
+        private final PlacementWorkspace placed;
+        private final int cost;
+        private final int weight;
+
+        Node(Search search, int depth, PlacementWorkspace placed, int cost, int weight) {
+            this.search = search;
+            this.depth = depth;
+            this.placed = placed;
+            this.cost = cost;
+            this.weight = weight;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth < Math.min(SPLIT_DEPTH, search.steps.length)) {
+                split();
+            } else {
+                PlacementWorkspace ws = workspaces.acquire();
+                try {
+                    ruleEngine.copy(placed, ws);
+                    explore(ws, depth, cost, weight);
+                } finally {
+                    workspaces.release(ws);
+                }
+            }
+        }
+
+        /** Expand this level as child tasks, one per option. */
+        private void split() {
+            if (!admissible(depth, cost, weight)) return;
+            List<Node> children = new ArrayList<>();
+            for (Furniture item : search.candidates[depth]) {
+                if (cost + item.getPrice() > search.budget) break;
+                if (!ruleEngine.place(search.steps[depth], item, placed)) continue;
+                PlacementWorkspace next = new PlacementWorkspace();
+                ruleEngine.copy(placed, next);
+                next.push(depth, item, placed.pendingX, placed.pendingY, placed.pendingRotated);
+                children.add(new Node(search, depth + 1, next, cost + item.getPrice(),
+                        weight + search.steps[depth].weight));
+            }
+            // option: leave this category out
+            children.add(new Node(search, depth + 1, placed, cost, weight));
+            invokeAll(children);
+        }
+
+        /** Sequential depth-first search, backtracking on the workspace. */
+        private void explore(PlacementWorkspace ws, int depth, int cost, int weight) {
+            if (depth == search.steps.length) {
+                search.offer(ws, cost, weight);
+                return;
+            }
+            if (!admissible(depth, cost, weight)) return;
+            for (Furniture item : search.candidates[depth]) {
+                if (cost + item.getPrice() > search.budget) break;
+                if (!ruleEngine.place(search.steps[depth], item, ws)) continue;
+                ws.pushPending(depth, item);
+                explore(ws, depth + 1, cost + item.getPrice(), weight + search.steps[depth].weight);
+                ws.pop();
+            }
+            explore(ws, depth + 1, cost, weight);
+        }
+
+        private boolean admissible(int depth, int cost, int weight) {
+            if (System.nanoTime() > search.deadline) {
+                search.timedOut = true;
+                return false;
+            }
+            return search.bound(depth, cost, weight) > search.threshold;
+        }
+    }
+}
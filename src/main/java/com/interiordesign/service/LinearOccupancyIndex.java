@@ -0,0 +1,20 @@
+package com.interiordesign.service;
+
+/**
+ * Checks every placed rectangle; cheapest for the handful of items in a
+ * typical living room.
+ */
+final class LinearOccupancyIndex extends AbstractOccupancyIndex {
+
+    LinearOccupancyIndex(double roomW, double roomH) {
+        super(roomW, roomH);
+    }
+
+    @Override
+    public boolean overlaps(double x, double y, double w, double d) {
+        for (int i = 0; i < count; i++) {
+            if (intersects(i, x, y, w, d)) return true;
+        }
+        return false;
+    }
+}
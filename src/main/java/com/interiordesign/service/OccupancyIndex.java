@@ -0,0 +1,32 @@
+package com.interiordesign.service;
+
+/**
+ * Occupied rectangles of one room, used for collision checks while placing
+ * furniture. Coordinates are meters with the origin at the top-left corner.
+ *
+ * Rectangles are added and removed in stack order so search code can
+ * backtrack. Queries do not allocate.
+ */
+public interface OccupancyIndex {
+
+    void add(double x, double y, double w, double d);
+
+    /** Remove the most recently added rectangle. */
+    void removeLast();
+
+    void clear();
+
+    int size();
+
+    /** True if the w x d rectangle at (x, y) intersects any occupied rectangle. */
+    boolean overlaps(double x, double y, double w, double d);
+
+    /**
+     * Find the free position for a w x d rectangle inside the room whose
+     * top-left corner is closest to (nearX, nearY), searching positions on a
+     * grid of the given step and no further than maxDistance away.
+     * On success writes x, y into out[0], out[1] and returns true.
+     */
+    boolean findFreeSlot(double w, double d, double nearX, double nearY,
+                         double step, double maxDistance, double[] out);
+}
@@ -0,0 +1,15 @@
+package com.interiordesign.service;
+
+/**
+ * Collision structure used by the layout engines (property layout.occupancy.type).
+ */
+public enum OccupancyType {
+    LINEAR,
+    GRID;
+
+    public OccupancyIndex create(double roomW, double roomH, double cellSize) {
+        return this == GRID
+                ? new GridOccupancyIndex(roomW, roomH, cellSize)
+                : new LinearOccupancyIndex(roomW, roomH);
+    }
+}
@@ -0,0 +1,55 @@
+package com.interiordesign.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one rule of the greedy pipeline (RuleEngine): which item
+ * was tried, where it went and why not if it did not. The duration covers
+ * the item lookup and the candidate search. Events of one layout share its
+ * thread and fall inside its LayoutSolveEvent.
+ *
+ * Not emitted by the solver's search, which places items thousands of
+ * times per solve; see LayoutSolveEvent for those.
+ */
+@Name("com.interiordesign.Placement")
+@Label("Placement Attempt")
+@Category({"Interior Design", "Layout"})
+@Description("One placement rule applied to one room")
+@StackTrace(false)
+final class PlacementEvent extends jdk.jfr.Event {
+
+    static final String PLACED = "placed";
+    static final String KEPT = "kept";               // relayout kept the previous placement
+    static final String MISSING = "missing";         // no fitting item, or its anchor is not placed
+    static final String UNPLACEABLE = "unplaceable"; // no feasible position
+    static final String OVER_BUDGET = "over budget";
+
+    @Label("Rule")
+    int rule;
+
+    @Label("Category")
+    String category;
+
+    @Label("Item Id")
+    long itemId;
+
+    @Label("Price")
+    int price;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("X")
+    @Description("Position in meters; NaN when no position was found")
+    double x;
+
+    @Label("Y")
+    double y;
+
+    @Label("Rotated")
+    boolean rotated;
+}
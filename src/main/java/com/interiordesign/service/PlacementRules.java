@@ -0,0 +1,386 @@
+package com.interiordesign.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The placement rule pipeline, compiled from a JSON rules document:
+ *
+ * <pre>
+ * {"rules": [
+ *   {"category": "sofa", "placement": "longest-wall", "wallOffset": 0.5, "budget": "required", "weight": 10},
+ *   {"category": "coffee", "label": "coffee table", "placement": "in-front-of", "relativeTo": "sofa",
+ *    "distance": 0.8, "budget": "required", "weight": 6},
+ *   ...],
+ *  "roles": {"living": ["sofa", "coffee", ...], "study": ["bookshelf", "armchair"]}}
+ * </pre>
+ *
+ * Rules run in document order, which is also the budget priority: required
+ * rules are always charged, optional ones only while the remaining budget
+ * covers them. relativeTo must name an earlier rule. Each placement takes
+ * exactly the distances it uses (see PlacementStep.Placement); messages
+ * default to ones built from the label. Unknown or missing fields are
+ * errors, so a typo cannot silently change a rule.
+ *
+ * The optional roles name the rules used for each kind of room in a floor
+ * plan (forRole), applied in rule order. A role may leave out the item a
+ * rule is placed relative to only if that placement works without it.
+ *
+ * Compiling validates everything up front and resolves names to indexes, so
+ * the engine only reads final fields per request. Instances are immutable
+ * and identified by a revision (hash of the document) that cached and
+ * precomputed layouts are keyed by; each role's rules have their own,
+ * derived from the document's revision and the role name, so two roles with
+ * the same rules still have different revisions.
+ */
+public final class PlacementRules {
+
+    /** Rules shipped with the application. */
+    static final String DEFAULT_RESOURCE = "placement-rules.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern CATEGORY = Pattern.compile("[a-z0-9_-]{1,50}");
+    private static final double MAX_DISTANCE = 15.0; // meters; largest room side
+    private static final int MAX_WEIGHT = 1000;
+    private static final Set<String> FIELDS = Set.of("category", "label", "placement", "relativeTo",
+            "wallOffset", "distance", "gap", "searchRadius", "budget", "weight",
+            "missingMessage", "unplaceableMessage", "overBudgetMessage");
+    private static final List<String> DISTANCES = List.of("wallOffset", "distance", "gap", "searchRadius");
+
+    private static volatile PlacementRules defaults;
+
+    private final PlacementStep[] steps;
+    private final List<String> categories;
+    private final Map<String, Integer> indexes;
+    private final long revision;
+    private final String source;
+    private final Map<String, PlacementRules> roles;
+
+    private PlacementRules(PlacementStep[] steps, long revision, String source, Map<String, PlacementRules> roles) {
+        this.steps = steps;
+        List<String> names = new ArrayList<>(steps.length);
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < steps.length; i++) {
+            names.add(steps[i].category);
+            byName.put(steps[i].category, i);
+        }
+        this.categories = List.copyOf(names);
+        this.indexes = Map.copyOf(byName);
+        this.revision = revision;
+        this.source = source;
+        this.roles = roles;
+    }
+
+    /** The rules in classpath:placement-rules.json, compiled once. */
+    public static PlacementRules defaults() {
+        PlacementRules rules = defaults;
+        if (rules == null) {
+            synchronized (PlacementRules.class) {
+                rules = defaults;
+                if (rules == null) {
+                    ClassLoader loader = PlacementRules.class.getClassLoader();
+                    try (InputStream in = loader.getResourceAsStream(DEFAULT_RESOURCE)) {
+                        if (in == null) {
+                            throw new IllegalStateException("Missing classpath resource " + DEFAULT_RESOURCE);
+                        }
+                        rules = compile(in.readAllBytes(), "classpath:" + DEFAULT_RESOURCE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    defaults = rules;
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Validate and compile a rules document.
+     *
+     * @throws IllegalArgumentException listing every problem found
+     */
+    public static PlacementRules compile(byte[] json, String source) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed rules JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> errors = new ArrayList<>();
+        JsonNode rules = root == null ? null : root.get("rules");
+        if (rules == null || !rules.isArray() || rules.isEmpty()) {
+            throw new IllegalArgumentException("Rules document needs a non-empty \"rules\" array");
+        }
+        List<PlacementStep> steps = new ArrayList<>(rules.size());
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            PlacementStep step = compileStep(rules.get(i), "rules[" + i + "]", seen, errors);
+            if (step != null) {
+                seen.put(step.category, i);
+                steps.add(step);
+            }
+        }
+        long revision = revisionOf(json);
+        Map<String, PlacementRules> roles = errors.isEmpty()
+                ? compileRoles(root.get("roles"), steps, revision, source, errors)
+                : Map.of();
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        return new PlacementRules(steps.toArray(new PlacementStep[0]), revision, source, roles);
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    PlacementStep step(int index) {
+        return steps[index];
+    }
+
+    /** Categories in rule order. */
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /** Position of the category's rule, or -1. Expects a lower-case category. */
+    int indexOf(String category) {
+        Integer index = indexes.get(category);
+        return index == null ? -1 : index;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    /** Revision as 16 hex digits, for logs and the admin endpoint. */
+    public String getRevisionHex() {
+        return String.format("%016x", revision);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Rules for a room of the given role, or null if the role is unknown.
+     * Without roles in the document every role gets all rules.
+     */
+    public PlacementRules forRole(String role) {
+        return roles.isEmpty() ? this : roles.get(role);
+    }
+
+    /** Role names in document order; empty if the document has none. */
+    public List<String> getRoles() {
+        return List.copyOf(roles.keySet());
+    }
+
+    /**
+     * The roles object: each role's subset of the rules, in rule order, with
+     * anchors renumbered (or dropped where the placement allows).
+     */
+    private static Map<String, PlacementRules> compileRoles(JsonNode node, List<PlacementStep> steps, long revision,
+                                                            String source, List<String> errors) {
+        if (node == null) return Map.of();
+        if (!node.isObject() || node.isEmpty()) {
+            errors.add("roles: must be an object with at least one role");
+            return Map.of();
+        }
+        Map<String, PlacementRules> roles = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> role = it.next();
+            String path = "roles." + role.getKey();
+            if (!CATEGORY.matcher(role.getKey()).matches()) {
+                errors.add(path + ": role names must be 1-50 lower-case letters, digits, '-' or '_'");
+                continue;
+            }
+            if (!role.getValue().isArray() || role.getValue().isEmpty()) {
+                errors.add(path + ": must be a non-empty array of rule categories");
+                continue;
+            }
+            boolean[] included = new boolean[steps.size()];
+            for (JsonNode category : role.getValue()) {
+                int index = -1;
+                for (int i = 0; i < steps.size(); i++) {
+                    if (steps.get(i).category.equals(category.asText())) index = i;
+                }
+                if (!category.isTextual() || index < 0) {
+                    errors.add(path + ": '" + category.asText() + "' is not the category of a rule");
+                } else if (included[index]) {
+                    errors.add(path + ": '" + category.asText() + "' is listed twice");
+                } else {
+                    included[index] = true;
+                }
+            }
+            List<PlacementStep> subset = new ArrayList<>();
+            int[] renumbered = new int[steps.size()];
+            for (int i = 0; i < steps.size(); i++) {
+                renumbered[i] = -1;
+                if (!included[i]) continue;
+                PlacementStep step = steps.get(i);
+                int anchor = step.anchor < 0 ? -1 : renumbered[step.anchor];
+                if (step.anchor >= 0 && anchor < 0 && step.placement.needsAnchor()) {
+                    errors.add(path + ": '" + step.category + "' is placed relative to '"
+                            + steps.get(step.anchor).category + "', which the role leaves out");
+                }
+                renumbered[i] = subset.size();
+                subset.add(step.anchor == anchor ? step : step.withAnchor(anchor));
+            }
+            String roleSource = source + "#" + role.getKey();
+            long roleRevision = revisionOf((Long.toHexString(revision) + "#" + role.getKey())
+                    .getBytes(StandardCharsets.UTF_8));
+            roles.put(role.getKey(), new PlacementRules(subset.toArray(new PlacementStep[0]), roleRevision,
+                    roleSource, Map.of()));
+        }
+        return roles;
+    }
+
+    private static PlacementStep compileStep(JsonNode rule, String path, Map<String, Integer> earlier,
+                                             List<String> errors) {
+        if (rule == null || !rule.isObject()) {
+            errors.add(path + ": must be an object");
+            return null;
+        }
+        int errorsBefore = errors.size();
+        for (Iterator<String> it = rule.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            if (!FIELDS.contains(field)) {
+                errors.add(path + ": unknown field '" + field + "'");
+            }
+        }
+
+        String category = text(rule, "category", path, errors);
+        if (category != null && !CATEGORY.matcher(category).matches()) {
+            errors.add(path + ".category: '" + category + "' must be 1-50 lower-case letters, digits, '-' or '_'");
+        } else if (category != null && earlier.containsKey(category)) {
+            errors.add(path + ".category: '" + category + "' already has a rule");
+        }
+        String label = rule.has("label") ? text(rule, "label", path, errors) : category;
+
+        String placementId = text(rule, "placement", path, errors);
+        PlacementStep.Placement placement = placementId == null ? null : PlacementStep.Placement.of(placementId);
+        if (placementId != null && placement == null) {
+            errors.add(path + ".placement: unknown placement '" + placementId + "'");
+        }
+
+        int anchor = -1;
+        if (rule.has("relativeTo")) {
+            String relativeTo = text(rule, "relativeTo", path, errors);
+            Integer index = relativeTo == null ? null : earlier.get(relativeTo);
+            if (relativeTo != null && index == null) {
+                errors.add(path + ".relativeTo: '" + relativeTo + "' is not the category of an earlier rule");
+            } else if (index != null) {
+                anchor = index;
+            }
+        } else if (placement != null && placement.needsAnchor()) {
+            errors.add(path + ".relativeTo: required for placement '" + placement.id() + "'");
+        }
+
+        Map<String, Double> distances = new HashMap<>();
+        for (String field : DISTANCES) {
+            boolean used = placement != null && uses(placement, field);
+            if (!rule.has(field)) {
+                if (used) errors.add(path + "." + field + ": required for placement '" + placement.id() + "'");
+                continue;
+            }
+            if (placement != null && !used) {
+                errors.add(path + "." + field + ": not used by placement '" + placement.id() + "'");
+                continue;
+            }
+            JsonNode value = rule.get(field);
+            if (!value.isNumber() || !(value.asDouble() >= 0 && value.asDouble() <= MAX_DISTANCE)) {
+                errors.add(path + "." + field + ": must be a number of meters between 0 and " + MAX_DISTANCE);
+                continue;
+            }
+            distances.put(field, value.asDouble());
+        }
+
+        String budget = text(rule, "budget", path, errors);
+        if (budget != null && !budget.equals("required") && !budget.equals("optional")) {
+            errors.add(path + ".budget: must be 'required' or 'optional'");
+        }
+        boolean required = "required".equals(budget);
+
+        int weight = 1;
+        if (rule.has("weight")) {
+            JsonNode value = rule.get("weight");
+            if (!value.isInt() || value.asInt() < 0 || value.asInt() > MAX_WEIGHT) {
+                errors.add(path + ".weight: must be an integer between 0 and " + MAX_WEIGHT);
+            } else {
+                weight = value.asInt();
+            }
+        }
+
+        String missing = rule.has("missingMessage") ? text(rule, "missingMessage", path, errors) : null;
+        String unplaceable = rule.has("unplaceableMessage") ? text(rule, "unplaceableMessage", path, errors) : null;
+        String overBudget = rule.has("overBudgetMessage") ? text(rule, "overBudgetMessage", path, errors) : null;
+        if (required && overBudget != null) {
+            errors.add(path + ".overBudgetMessage: only optional rules can exceed the budget");
+        }
+        if (errors.size() > errorsBefore) return null;
+
+        return new PlacementStep(category, label, placement, anchor, required, weight,
+                distances.getOrDefault("wallOffset", 0.0), distances.getOrDefault("distance", 0.0),
+                distances.getOrDefault("gap", 0.0), distances.getOrDefault("searchRadius", 0.0),
+                missing != null ? missing : "No " + label + " found in furniture database.",
+                unplaceable != null ? unplaceable : capitalize(label) + " could not be placed without overlap.",
+                overBudget,
+                "No " + label + " could be placed within budget and room bounds.");
+    }
+
+    private static boolean uses(PlacementStep.Placement placement, String field) {
+        switch (placement) {
+            case LONGEST_WALL:
+            case OPPOSITE_WALL:
+            case CORNER:
+                return field.equals("wallOffset");
+            case IN_FRONT_OF:
+                return field.equals("distance");
+            case BESIDE:
+                return field.equals("gap");
+            default: // NEAR
+                return !field.equals("distance");
+        }
+    }
+
+    private static String text(JsonNode rule, String field, String path, List<String> errors) {
+        JsonNode value = rule.get(field);
+        if (value == null || !value.isTextual() || value.asText().isBlank()) {
+            errors.add(path + "." + field + ": must be a non-empty string");
+            return null;
+        }
+        return value.asText().trim();
+    }
+
+    private static String capitalize(String s) {
+        return s.substring(0, 1).toUpperCase(Locale.ROOT) + s.substring(1);
+    }
+
+    private static long revisionOf(byte[] json) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(json)).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
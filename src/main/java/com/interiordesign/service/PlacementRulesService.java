@@ -0,0 +1,184 @@
+package com.interiordesign.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Loads the placement rules from layout.rules.file (the shipped
+ * classpath:placement-rules.json when unset) into the RuleEngine.
+ *
+ * The file is compiled at startup (an invalid file fails startup), then
+ * polled every layout.rules.refresh-interval-ms and recompiled when its
+ * modification time or size changes; reload() does the same on demand. A
+ * file that does not compile is reported and the rules in use are kept.
+ * Cached and precomputed layouts are keyed by the rules revision, so they
+ * are not served across a swap.
+ *
+ * Meters: layout.rules.reloads{result=success|failure}.
+ */
+@Service
+public class PlacementRulesService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlacementRulesService.class);
+
+    private final RuleEngine ruleEngine;
+    private final Path file;
+    private final Counter successes;
+    private final Counter failures;
+
+    // file attributes at the last load attempt, so a bad file is not reported on every poll
+    private Instant lastModified;
+    private long lastSize = -1;
+    private volatile Instant loadedAt;
+    private volatile String lastError;
+
+    public PlacementRulesService(RuleEngine ruleEngine, MeterRegistry registry,
+                                 @Value("${layout.rules.file:}") String file) {
+        this.ruleEngine = ruleEngine;
+        this.file = file.isBlank() ? null : Paths.get(file).toAbsolutePath().normalize();
+        this.successes = reloads(registry, "success");
+        this.failures = reloads(registry, "failure");
+        if (this.file == null) {
+            ruleEngine.setRules(PlacementRules.defaults());
+            loadedAt = Instant.now();
+        } else {
+            try {
+                reload();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid placement rules " + this.file + ": " + e.getMessage(), e);
+            }
+        }
+        log.info("Placement rules {} revision {} ({} rules)", ruleEngine.rules().getSource(),
+                ruleEngine.rules().getRevisionHex(), ruleEngine.rules().size());
+    }
+
+    /**
+     * Compile layout.rules.file and swap it in if it differs from the rules
+     * in use. Returns the rules in use afterwards.
+     *
+     * @throws IllegalArgumentException if the file is unreadable or invalid; the rules in use are kept
+     */
+    public synchronized PlacementRules reload() {
+        if (file == null) {
+            return ruleEngine.rules();
+        }
+        PlacementRules rules;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            lastModified = attributes.lastModifiedTime().toInstant();
+            lastSize = attributes.size();
+            rules = PlacementRules.compile(Files.readAllBytes(file), file.toString());
+        } catch (IOException | IllegalArgumentException e) {
+            String message = e instanceof IOException ? "Cannot read " + file + ": " + e : e.getMessage();
+            lastError = message;
+            failures.increment();
+            throw new IllegalArgumentException(message, e);
+        }
+        PlacementRules current = ruleEngine.rules();
+        if (rules.getRevision() != current.getRevision() || !rules.getSource().equals(current.getSource())) {
+            ruleEngine.setRules(rules);
+            if (rules.getRevision() != current.getRevision()) {
+                log.info("Placement rules changed: revision {} -> {} ({} rules)", current.getRevisionHex(),
+                        rules.getRevisionHex(), rules.size());
+            }
+        }
+        loadedAt = Instant.now();
+        lastError = null;
+        successes.increment();
+        return rules;
+    }
+
+    /**
+     * Reload the rules file if it changed since the last attempt.
+     */
+    @Scheduled(fixedDelayString = "${layout.rules.refresh-interval-ms:5000}")
+    public synchronized void refreshIfChanged() {
+        if (file == null) return;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().toInstant().equals(lastModified) && attributes.size() == lastSize) {
+                return;
+            }
+        } catch (IOException e) {
+            // missing or unreadable: reload() reports it
+        }
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            log.warn("Placement rules not reloaded, keeping revision {}: {}",
+                    ruleEngine.rules().getRevisionHex(), e.getMessage());
+        }
+    }
+
+    public Stats getStats() {
+        PlacementRules rules = ruleEngine.rules();
+        return new Stats(rules.getSource(), rules.getRevisionHex(), rules.getCategories(), loadedAt,
+                file != null ? file.toString() : null, lastError);
+    }
+
+    private static Counter reloads(MeterRegistry registry, String result) {
+        return Counter.builder("layout.rules.reloads")
+                .description("Placement rules reloads by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Rules in use, for the admin endpoint.
+     */
+    public static final class Stats {
+        private final String source;
+        private final String revision;
+        private final List<String> categories;
+        private final Instant loadedAt;
+        private final String file;
+        private final String lastError;
+
+        Stats(String source, String revision, List<String> categories, Instant loadedAt, String file,
+              String lastError) {
+            this.source = source;
+            this.revision = revision;
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+            this.file = file;
+            this.lastError = lastError;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public List<String> getCategories() {
+            return categories;
+        }
+
+        public String getLoadedAt() {
+            return loadedAt != null ? loadedAt.toString() : null;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+    }
+}
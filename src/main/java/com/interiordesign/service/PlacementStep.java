@@ -0,0 +1,94 @@
+package com.interiordesign.service;
+
+/**
+ * One compiled placement rule: which category it places, how candidate
+ * positions are generated (placement plus its distances in meters), the
+ * earlier rule it is placed relative to, and how it is charged against the
+ * budget. Built by PlacementRules; immutable.
+ */
+final class PlacementStep {
+
+    /**
+     * How a rule generates candidate positions (see RuleEngine.place).
+     */
+    enum Placement {
+        /** Centered on the longest wall, wallOffset from it; then along any wall. */
+        LONGEST_WALL("longest-wall"),
+        /** Centered in front of the anchor, distance away (down to distance - 0.3). */
+        IN_FRONT_OF("in-front-of"),
+        /** Centered on the wall opposite the anchor's wall, wallOffset from it. */
+        OPPOSITE_WALL("opposite-wall"),
+        /** Top-left corner, then the other corners and along the walls, wallOffset from them. */
+        CORNER("corner"),
+        /** Right of the anchor, gap away, then its other end along its wall. */
+        BESIDE("beside"),
+        /**
+         * Around the anchor (if placed), gap away; then the corners at
+         * wallOffset and any free spot within searchRadius of the bottom-left one.
+         */
+        NEAR("near");
+
+        private final String id;
+
+        Placement(String id) {
+            this.id = id;
+        }
+
+        String id() {
+            return id;
+        }
+
+        static Placement of(String id) {
+            for (Placement p : values()) {
+                if (p.id.equals(id)) return p;
+            }
+            return null;
+        }
+
+        /** True if the rule cannot be applied unless its anchor was placed. */
+        boolean needsAnchor() {
+            return this == IN_FRONT_OF || this == OPPOSITE_WALL || this == BESIDE;
+        }
+    }
+
+    final String category;
+    final String label;
+    final Placement placement;
+    final int anchor;        // index of the rule placed relative to, or -1
+    final boolean required;  // placed whatever the budget; reported when missing
+    final int weight;        // LayoutSolver score for placing it
+    final double wallOffset;
+    final double distance;
+    final double gap;
+    final double searchRadius;
+    final String missingMessage;
+    final String unplaceableMessage;
+    final String overBudgetMessage; // null: optional rule skipped quietly
+    final String solverMessage;
+
+    PlacementStep(String category, String label, Placement placement, int anchor, boolean required, int weight,
+                  double wallOffset, double distance, double gap, double searchRadius,
+                  String missingMessage, String unplaceableMessage, String overBudgetMessage,
+                  String solverMessage) {
+        this.category = category;
+        this.label = label;
+        this.placement = placement;
+        this.anchor = anchor;
+        this.required = required;
+        this.weight = weight;
+        this.wallOffset = wallOffset;
+        this.distance = distance;
+        this.gap = gap;
+        this.searchRadius = searchRadius;
+        this.missingMessage = missingMessage;
+        this.unplaceableMessage = unplaceableMessage;
+        this.overBudgetMessage = overBudgetMessage;
+        this.solverMessage = solverMessage;
+    }
+
+    /** Same rule placed relative to another rule index (-1: none), for a subset of the rules. */
+    PlacementStep withAnchor(int anchor) {
+        return new PlacementStep(category, label, placement, anchor, required, weight, wallOffset, distance, gap,
+                searchRadius, missingMessage, unplaceableMessage, overBudgetMessage, solverMessage);
+    }
+}
@@ -0,0 +1,169 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutable placement state for one room while a layout is being built: the
+ * placed items as parallel primitive arrays (footprint as placed, rule index,
+ * rotation, catalog item) plus the room's collision index. Items are pushed
+ * and popped in stack order so the solver can backtrack.
+ *
+ * RuleEngine takes one from its WorkspacePool and resets it per request;
+ * FurniturePosition objects are only created by toPositions() once a layout
+ * is final.
+ */
+final class PlacementWorkspace {
+
+    double roomW;
+    double roomH;
+    OccupancyIndex occupancy;
+
+    double[] x = new double[8];
+    double[] y = new double[8];
+    double[] w = new double[8];
+    double[] d = new double[8];
+    int[] rule = new int[8];
+    boolean[] rotated = new boolean[8];
+    boolean[] kept = new boolean[8]; // taken over from a previous layout (RuleEngine.relayout)
+    Furniture[] item = new Furniture[8];
+    int size;
+
+    // position chosen by the last successful RuleEngine.place call
+    double pendingX;
+    double pendingY;
+    boolean pendingRotated;
+
+    // scratch for OccupancyIndex.findFreeSlot
+    final double[] slot = new double[2];
+
+    // scratch for RuleEngine.place; created on first use
+    private CandidateBuffer candidates;
+
+    private OccupancyType occupancyType;
+    private double cellSize;
+
+    /**
+     * Empty the workspace for a room of the given size. The collision index
+     * is cleared and reused when the room size and index settings match the
+     * previous request, and rebuilt otherwise.
+     */
+    void reset(double roomW, double roomH, OccupancyType type, double cellSize) {
+        if (occupancy == null || this.roomW != roomW || this.roomH != roomH
+                || occupancyType != type || this.cellSize != cellSize) {
+            occupancy = type.create(roomW, roomH, cellSize);
+            occupancyType = type;
+            this.cellSize = cellSize;
+        } else {
+            occupancy.clear();
+        }
+        this.roomW = roomW;
+        this.roomH = roomH;
+        Arrays.fill(item, 0, size, null);
+        size = 0;
+    }
+
+    /** Candidate buffer for RuleEngine.place, reused across calls. */
+    CandidateBuffer candidates() {
+        if (candidates == null) {
+            candidates = new CandidateBuffer();
+        }
+        return candidates;
+    }
+
+    /** Place the pending position of the given item (see RuleEngine.place). */
+    void pushPending(int ruleIndex, Furniture furniture) {
+        push(ruleIndex, furniture, pendingX, pendingY, pendingRotated);
+    }
+
+    void push(int ruleIndex, Furniture furniture, double px, double py, boolean rot) {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+        double fw = rot ? furniture.getDepth() : furniture.getWidth();
+        double fd = rot ? furniture.getWidth() : furniture.getDepth();
+        x[size] = px;
+        y[size] = py;
+        w[size] = fw;
+        d[size] = fd;
+        rule[size] = ruleIndex;
+        rotated[size] = rot;
+        kept[size] = false;
+        item[size] = furniture;
+        size++;
+        occupancy.add(px, py, fw, fd);
+    }
+
+    /** Mark the most recently pushed item as kept from a previous layout. */
+    void markKept() {
+        kept[size - 1] = true;
+    }
+
+    /** True if the rule's item was kept from a previous layout. */
+    boolean isKept(int ruleIndex) {
+        int slot = find(ruleIndex);
+        return slot >= 0 && kept[slot];
+    }
+
+    /** Remove the most recently pushed item. */
+    void pop() {
+        if (size == 0) return;
+        item[--size] = null;
+        occupancy.removeLast();
+    }
+
+    /** Slot of the first item placed by the given rule, or -1. */
+    int find(int ruleIndex) {
+        for (int i = 0; i < size; i++) {
+            if (rule[i] == ruleIndex) return i;
+        }
+        return -1;
+    }
+
+    boolean contains(int ruleIndex) {
+        return find(ruleIndex) >= 0;
+    }
+
+    int totalCost() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += item[i].getPrice();
+        }
+        return total;
+    }
+
+    /**
+     * Replace this workspace's items with a copy of another's (same room),
+     * rebuilding the collision index.
+     */
+    void copyFrom(PlacementWorkspace other, OccupancyType type, double cellSize) {
+        reset(other.roomW, other.roomH, type, cellSize);
+        for (int i = 0; i < other.size; i++) {
+            push(other.rule[i], other.item[i], other.x[i], other.y[i], other.rotated[i]);
+            kept[i] = other.kept[i];
+        }
+    }
+
+    List<FurniturePosition> toPositions() {
+        List<FurniturePosition> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            positions.add(new FurniturePosition(item[i], x[i], y[i], rotated[i]));
+        }
+        return positions;
+    }
+
+    private void grow(int n) {
+        x = Arrays.copyOf(x, n);
+        y = Arrays.copyOf(y, n);
+        w = Arrays.copyOf(w, n);
+        d = Arrays.copyOf(d, n);
+        rule = Arrays.copyOf(rule, n);
+        rotated = Arrays.copyOf(rotated, n);
+        kept = Arrays.copyOf(kept, n);
+        item = Arrays.copyOf(item, n);
+    }
+}
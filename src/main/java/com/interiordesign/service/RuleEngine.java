@@ -1,218 +1,542 @@
 package com.interiordesign.service;
 
 import com.interiordesign.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * RuleEngine encapsulates placement rules:
+ * RuleEngine applies the placement rules (see PlacementRules) in order.
+ * The shipped rules are:
  * - Sofa against longest wall (0.5m from wall)
  * - Coffee table 0.8m in front of sofa
  * - TV stand on opposite wall
  * - Bookshelf in corner if space
  * - Side table next to sofa if budget allows
+ * - Armchair next to the coffee table if budget allows
  *
- * Uses a simple rectangle occupancy / collision detection.
+ * When a rule's own spot is taken, alternative positions along the walls,
+ * in corners and next to related items (0 or 90 degrees) are scored and the
+ * best feasible one is used.
+ *
+ * The rules in use can be replaced at runtime (setRules); each layout reads
+ * them once, so a swap never mixes two rule sets in one layout.
+ *
+ * Collision detection goes through an OccupancyIndex (uniform grid by
+ * default, see layout.occupancy.type).
+ *
+ * Each rule of a layout emits a PlacementEvent when JFR records it.
  */
 @Component
 public class RuleEngine {
 
-    private static final double SOFA_WALL_OFFSET = 0.5; // meters from wall
-    private static final double COFFEE_DISTANCE = 0.8;   // meters in front of sofa
+    private static final double SLOT_STEP = 0.1;          // meters between free-slot candidates
+
+    // walls, for candidate generation
+    private static final int TOP = 0;
+    private static final int BOTTOM = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    // candidate preference scores: a rule's original anchor beats everything
+    private static final double PRIMARY = 100;
+    private static final double NEAR = 90;      // next to / in front of the related item
+    private static final double WALL_LONG = 80;
+    private static final double CORNER = 70;
+    private static final double WALL_SHORT = 60;
+    private static final double SLIDE_STEP = 0.25;   // meters between positions along a wall
+    private static final int MAX_SLIDE_STEPS = 24;
+    private static final double SLIDE_PENALTY = 1;
+
+    private final OccupancyType occupancyType;
+    private final double cellSize;
+    private final int maxCandidates;
+    private final long candidateBudgetNanos;
+    private final AtomicReference<PlacementRules> rules = new AtomicReference<>(PlacementRules.defaults());
+    private final WorkspacePool workspaces = new WorkspacePool(2 * Runtime.getRuntime().availableProcessors());
+
+    public RuleEngine() {
+        this(OccupancyType.GRID, 0.5, 256, 500);
+    }
+
+    @Autowired
+    public RuleEngine(@Value("${layout.occupancy.type:grid}") OccupancyType occupancyType,
+                      @Value("${layout.occupancy.cell-size:0.5}") double cellSize,
+                      @Value("${layout.candidates.max-per-rule:256}") int maxCandidates,
+                      @Value("${layout.candidates.time-budget-micros:500}") long candidateBudgetMicros) {
+        this.occupancyType = occupancyType;
+        this.cellSize = cellSize;
+        this.maxCandidates = Math.max(1, maxCandidates);
+        this.candidateBudgetNanos = TimeUnit.MICROSECONDS.toNanos(candidateBudgetMicros);
+    }
+
+    /** Placement rules used by layouts that do not pass their own. */
+    public PlacementRules rules() {
+        return rules.get();
+    }
+
+    /** Replace the placement rules; layouts already running finish with the old ones. */
+    public void setRules(PlacementRules rules) {
+        this.rules.set(rules);
+    }
+
+    /**
+     * Fresh, empty collision structure for a room of the given size.
+     */
+    OccupancyIndex newOccupancy(double roomW, double roomH) {
+        return occupancyType.create(roomW, roomH, cellSize);
+    }
+
+    /**
+     * Empty the workspace for a room of the given size, using this engine's
+     * collision index settings.
+     */
+    void reset(PlacementWorkspace ws, double roomW, double roomH) {
+        ws.reset(roomW, roomH, occupancyType, cellSize);
+    }
+
+    /** Replace target's contents with a copy of source's. */
+    void copy(PlacementWorkspace source, PlacementWorkspace target) {
+        target.copyFrom(source, occupancyType, cellSize);
+    }
 
     /**
      * Attempt to produce a layout given room and available furniture and budget.
      * This will pick one of each important category and optionally add extras.
      */
     public RoomLayout generateLayout(Room room, List<Furniture> furnitureList) {
+        return generateLayout(room, CatalogIndex.of(furnitureList));
+    }
+
+    /**
+     * Same as above, against a prebuilt catalog index. For each category the
+     * cheapest item that fits inside the room is chosen, leaving as much budget
+     * as possible for the optional extras.
+     */
+    public RoomLayout generateLayout(Room room, CatalogIndex catalog) {
+        return layout(room, catalog, rules.get(), null);
+    }
+
+    /** Same as above with the given rules instead of the current ones. */
+    public RoomLayout generateLayout(Room room, CatalogIndex catalog, PlacementRules rules) {
+        return layout(room, catalog, rules, null);
+    }
+
+    /**
+     * Layout for a changed room (size and/or budget) that keeps what it can
+     * of a previous layout. Rules run in the usual order; a rule keeps its
+     * previous placement if the item is still in the catalog, still lies
+     * inside the room without overlapping anything placed so far, still fits
+     * the budget (optional rules only, as in generateLayout) and the item it
+     * was placed relative to was kept as well. Every other rule is applied
+     * again as in generateLayout.
+     */
+    public RoomLayout relayout(Room room, CatalogIndex catalog, PlacementRules rules,
+                               List<FurniturePosition> previous) {
+        FurniturePosition[] byRule = new FurniturePosition[rules.size()];
+        for (FurniturePosition p : previous) {
+            String category = p.getFurniture().getCategory();
+            int rule = category == null ? -1 : rules.indexOf(category.toLowerCase(Locale.ROOT));
+            if (rule >= 0 && byRule[rule] == null) {
+                byRule[rule] = p;
+            }
+        }
+        return layout(room, catalog, rules, byRule);
+    }
+
+    /**
+     * The rule pipeline; previous (indexed by rule) is null for a fresh layout.
+     * Required rules are placed whatever the budget and reported when their
+     * item is missing or cannot be placed; optional rules only while the
+     * remaining budget covers the item, reporting it if they have an
+     * over-budget message and the item would have fit.
+     */
+    private RoomLayout layout(Room room, CatalogIndex catalog, PlacementRules rules, FurniturePosition[] previous) {
+        PlacementWorkspace ws = workspaces.acquire();
+        try {
+            // interpret length as horizontal, width as vertical
+            reset(ws, room.getLength(), room.getWidth());
+            return layout(room, catalog, rules, previous, ws);
+        } finally {
+            workspaces.release(ws);
+        }
+    }
+
+    private RoomLayout layout(Room room, CatalogIndex catalog, PlacementRules rules, FurniturePosition[] previous,
+                              PlacementWorkspace ws) {
         RoomLayout layout = new RoomLayout();
         layout.setRoom(room);
 
-        // convert list to lookups
-        Furniture sofa = findByCategory(furnitureList, "sofa");
-        Furniture coffee = findByCategory(furnitureList, "coffee");
-        Furniture tv = findByCategory(furnitureList, "tvstand");
-        Furniture bookshelf = findByCategory(furnitureList, "bookshelf");
-        Furniture sidetable = findByCategory(furnitureList, "sidetable");
-        Furniture armchair = findByCategory(furnitureList, "armchair");
-
         int budget = room.getBudget();
         int totalCost = 0;
-        List<FurniturePosition> placed = new ArrayList<>();
+        int kept;
+        double roomW = ws.roomW;
+        double roomH = ws.roomH;
+
+        for (int rule = 0; rule < rules.size(); rule++) {
+            PlacementStep step = rules.step(rule);
+            PlacementEvent event = new PlacementEvent();
+            event.begin();
+            int budgetLeft = step.required ? Integer.MAX_VALUE : budget - totalCost;
+            if ((kept = keep(step, rule, previous, catalog, ws, budgetLeft)) >= 0) {
+                totalCost += kept;
+                commit(event, rule, step, ws.item[ws.size - 1], PlacementEvent.KEPT, ws);
+                continue;
+            }
+            Furniture item = catalog.cheapestFitting(step.category, roomW, roomH);
+            String outcome = PlacementEvent.MISSING;
+            if (step.required) {
+                if (item == null || (step.placement.needsAnchor() && ws.find(step.anchor) < 0)) {
+                    layout.addError(step.missingMessage);
+                } else if (place(step, item, ws)) {
+                    ws.pushPending(rule, item);
+                    totalCost += item.getPrice();
+                    outcome = PlacementEvent.PLACED;
+                } else {
+                    layout.addError(step.unplaceableMessage);
+                    outcome = PlacementEvent.UNPLACEABLE;
+                }
+            } else if (item != null) {
+                boolean affordable = totalCost + item.getPrice() <= budget;
+                outcome = affordable ? PlacementEvent.UNPLACEABLE : PlacementEvent.OVER_BUDGET;
+                // unaffordable items are only placed (not pushed) to tell whether to report them
+                if ((affordable || step.overBudgetMessage != null) && place(step, item, ws)) {
+                    if (affordable) {
+                        ws.pushPending(rule, item);
+                        totalCost += item.getPrice();
+                        outcome = PlacementEvent.PLACED;
+                    } else {
+                        layout.addError(step.overBudgetMessage);
+                    }
+                }
+            }
+            commit(event, rule, step, item, outcome, ws);
+        }
+
+        // Set results
+        layout.setPlaced(ws.toPositions());
+        layout.setTotalCost(totalCost);
+        layout.setRemainingBudget(Math.max(0, budget - totalCost));
+        return layout;
+    }
+
+    /**
+     * Fill in and commit a placement event if JFR records it; a no-op
+     * otherwise. The position is the item's if it was placed or kept.
+     */
+    private static void commit(PlacementEvent event, int rule, PlacementStep step, Furniture item, String outcome,
+                               PlacementWorkspace ws) {
+        if (!event.shouldCommit()) return;
+        event.rule = rule;
+        event.category = step.category;
+        event.outcome = outcome;
+        if (item != null) {
+            event.itemId = item.getId() != null ? item.getId() : -1;
+            event.price = item.getPrice();
+        }
+        boolean positioned = PlacementEvent.PLACED.equals(outcome) || PlacementEvent.KEPT.equals(outcome);
+        event.x = positioned ? ws.x[ws.size - 1] : Double.NaN;
+        event.y = positioned ? ws.y[ws.size - 1] : Double.NaN;
+        event.rotated = positioned && ws.rotated[ws.size - 1];
+        event.commit();
+    }
+
+    /**
+     * For relayout: push the rule's previous placement if it can be kept
+     * (see relayout) and return the item's current catalog price; -1 if the
+     * rule has to be applied again. Kept items are marked as such in the
+     * workspace so dependent rules can tell.
+     */
+    private int keep(PlacementStep step, int rule, FurniturePosition[] previous, CatalogIndex catalog,
+                     PlacementWorkspace ws, int budgetLeft) {
+        if (previous == null || previous[rule] == null) return -1;
+        if (step.anchor >= 0 && !ws.isKept(step.anchor)) return -1;
 
-        double roomW = room.getLength(); // interpret length as horizontal
-        double roomH = room.getWidth();  // interpret width as vertical
+        FurniturePosition p = previous[rule];
+        Furniture item = catalog.find(step.category, p.getFurniture().getId());
+        if (item == null || item.getPrice() > budgetLeft) return -1;
+        double w = p.isRotated() ? item.getDepth() : item.getWidth();
+        double d = p.isRotated() ? item.getWidth() : item.getDepth();
+        if (!fitsInRoom(p.getX(), p.getY(), w, d, ws.roomW, ws.roomH)
+                || ws.occupancy.overlaps(p.getX(), p.getY(), w, d)) {
+            return -1;
+        }
+        ws.push(rule, item, p.getX(), p.getY(), p.isRotated());
+        ws.markKept();
+        return item.getPrice();
+    }
 
+    /**
+     * Apply one placement rule to one item.
+     * Each rule proposes scored candidate positions (its original anchor
+     * first and highest, then alternatives along walls, in corners and next
+     * to related items, at 0 or 90 degrees); the best-scoring one that lies
+     * inside the room and does not overlap anything already placed wins.
+     * On success the winner is left in the workspace's pending fields for
+     * pushPending; returns false if no candidate is feasible. Budget is left
+     * to the caller. Does not allocate.
+     */
+    boolean place(PlacementStep step, Furniture item, PlacementWorkspace ws) {
+        double roomW = ws.roomW;
+        double roomH = ws.roomH;
         // Determine longest wall: horizontal if length >= width
         boolean longestIsHorizontal = roomW >= roomH;
+        int anchor = step.anchor < 0 ? -1 : ws.find(step.anchor);
+        if (anchor < 0 && step.placement.needsAnchor()) return false;
+        double w = item.getWidth();
+        double d = item.getDepth();
+        CandidateBuffer c = ws.candidates();
+        c.clear();
 
-        // Place sofa against longest wall, centered if space allows
-        if (sofa != null) {
-            double x, y;
-            if (longestIsHorizontal) {
-                // sofa's depth aligns with vertical axis; place along top or bottom wall; choose top
-                y = SOFA_WALL_OFFSET; // from top
-                x = Math.max(0.1, (roomW - sofa.getWidth()) / 2.0); // center horizontally
-            } else {
-                // longest wall vertical => place along left wall (sofa rotated)
-                x = SOFA_WALL_OFFSET;
-                y = Math.max(0.1, (roomH - sofa.getDepth()) / 2.0); // center vertically
+        switch (step.placement) {
+            case LONGEST_WALL: {
+                double offset = step.wallOffset;
+                if (longestIsHorizontal) {
+                    // depth aligns with vertical axis; place along top wall, centered
+                    c.add(Math.max(0.1, (roomW - w) / 2.0), offset, false, PRIMARY);
+                } else {
+                    // longest wall vertical => along left wall
+                    c.add(offset, Math.max(0.1, (roomH - d) / 2.0), false, PRIMARY);
+                }
+                // any wall, back to the wall; long walls preferred
+                for (int wall = TOP; wall <= RIGHT; wall++) {
+                    boolean longWall = isHorizontal(wall) == longestIsHorizontal;
+                    alongWall(c, wall, w, d, roomW, roomH, offset, longWall ? WALL_LONG : WALL_SHORT);
+                }
+                break;
             }
-            FurniturePosition sofaPos = new FurniturePosition(sofa, x, y);
-            if (fitsInRoom(sofaPos, roomW, roomH)) {
-                placed.add(sofaPos);
-                totalCost += sofa.getPrice();
-            } else {
-                layout.addError("Sofa does not fit the room with the chosen orientation.");
+            case IN_FRONT_OF: {
+                double distance = step.distance;
+                if (longestIsHorizontal) {
+                    // anchor against top wall => below it by distance
+                    c.add(ws.x[anchor] + (ws.w[anchor] - w) / 2.0,
+                            ws.y[anchor] + ws.d[anchor] + distance, false, PRIMARY);
+                } else {
+                    // anchor along left wall => to the right of it
+                    c.add(ws.x[anchor] + ws.w[anchor] + distance,
+                            ws.y[anchor] + (ws.d[anchor] - d) / 2.0, false, PRIMARY);
+                }
+                // in front of the anchor wherever it ended up, parallel to it;
+                // any other side of it only if that is impossible
+                int anchorWall = nearestWall(ws, anchor);
+                for (int side = TOP; side <= RIGHT; side++) {
+                    double base = side == anchorWall ? NEAR : WALL_SHORT;
+                    for (double gap = distance; gap >= distance - 0.3; gap -= 0.15) {
+                        inFront(c, ws, anchor, side, w, d, gap, base - (distance - gap) * 20);
+                    }
+                }
+                break;
             }
-        } else {
-            layout.addError("No sofa found in furniture database.");
-        }
-
-        // Place coffee table in front of sofa
-        if (coffee != null && !placed.isEmpty()) {
-            FurniturePosition sofaPos = placed.get(0);
-            double x = sofaPos.getX() + (sofaPos.getWidth() - coffee.getWidth()) / 2.0;
-            double y;
-            if (longestIsHorizontal) {
-                // sofa against top wall => coffee below sofa by COFFEE_DISTANCE
-                y = sofaPos.getY() + sofaPos.getDepth() + COFFEE_DISTANCE;
-            } else {
-                // sofa along left wall => coffee to right of sofa
-                x = sofaPos.getX() + sofaPos.getWidth() + COFFEE_DISTANCE;
-                y = sofaPos.getY() + (sofaPos.getDepth() - coffee.getDepth()) / 2.0;
+            case OPPOSITE_WALL: {
+                double offset = step.wallOffset;
+                if (longestIsHorizontal) {
+                    // anchor top => bottom wall
+                    c.add(Math.max(0.1, (roomW - w) / 2.0), roomH - d - offset, false, PRIMARY);
+                } else {
+                    // anchor on left => right wall
+                    c.add(roomW - w - offset, Math.max(0.1, (roomH - d) / 2.0), false, PRIMARY);
+                }
+                // facing the anchor first, then the side walls
+                int anchorWall = nearestWall(ws, anchor);
+                for (int wall = TOP; wall <= RIGHT; wall++) {
+                    if (wall == anchorWall) continue;
+                    alongWall(c, wall, w, d, roomW, roomH, offset,
+                            wall == opposite(anchorWall) ? WALL_LONG : WALL_SHORT);
+                }
+                break;
             }
-            FurniturePosition coffeePos = new FurniturePosition(coffee, x, y);
-            if (fitsInRoom(coffeePos, roomW, roomH) && !overlapsAny(coffeePos, placed)) {
-                placed.add(coffeePos);
-                totalCost += coffee.getPrice();
-            } else {
-                layout.addError("Coffee table could not be placed without overlap.");
+            case CORNER: {
+                double offset = step.wallOffset;
+                c.add(offset, offset, false, PRIMARY);
+                corners(c, w, d, roomW, roomH, offset, CORNER);
+                for (int wall = TOP; wall <= RIGHT; wall++) {
+                    alongWall(c, wall, w, d, roomW, roomH, offset, WALL_SHORT);
+                }
+                break;
             }
-        } else {
-            layout.addError("No coffee table found in furniture database.");
-        }
-
-        // Place TV stand on opposite wall from sofa
-        if (tv != null && !placed.isEmpty()) {
-            double x, y;
-            if (longestIsHorizontal) {
-                // sofa top => tv on bottom wall
-                y = roomH - tv.getDepth() - SOFA_WALL_OFFSET;
-                x = Math.max(0.1, (roomW - tv.getWidth()) / 2.0);
-            } else {
-                // sofa on left => tv on right wall
-                x = roomW - tv.getWidth() - SOFA_WALL_OFFSET;
-                y = Math.max(0.1, (roomH - tv.getDepth()) / 2.0);
+            case BESIDE: {
+                double gap = step.gap;
+                // right of the anchor, then either end of it along its wall
+                c.add(ws.x[anchor] + ws.w[anchor] + gap, ws.y[anchor], false, PRIMARY);
+                if (isHorizontal(nearestWall(ws, anchor))) {
+                    c.add(ws.x[anchor] - w - gap, ws.y[anchor], false, NEAR);
+                } else {
+                    c.add(ws.x[anchor], ws.y[anchor] - d - gap, false, NEAR);
+                    c.add(ws.x[anchor], ws.y[anchor] + ws.d[anchor] + gap, false, NEAR);
+                }
+                break;
             }
-            FurniturePosition tvPos = new FurniturePosition(tv, x, y);
-            if (fitsInRoom(tvPos, roomW, roomH) && !overlapsAny(tvPos, placed)) {
-                placed.add(tvPos);
-                totalCost += tv.getPrice();
-            } else {
-                layout.addError("TV stand could not be placed without overlap.");
+            case NEAR: {
+                double gap = step.gap;
+                // next to the anchor if it was placed
+                if (anchor >= 0) {
+                    c.add(ws.x[anchor] + ws.w[anchor] + gap, ws.y[anchor], false, PRIMARY);
+                    c.add(ws.x[anchor] - w - gap, ws.y[anchor], false, NEAR);
+                    c.add(ws.x[anchor], ws.y[anchor] + ws.d[anchor] + gap, false, NEAR - 5);
+                    c.add(ws.x[anchor], ws.y[anchor] - d - gap, false, NEAR - 5);
+                }
+                // fallback: bottom-left corner, then the other corners
+                c.add(step.wallOffset, roomH - d - step.wallOffset, false, CORNER);
+                corners(c, w, d, roomW, roomH, step.wallOffset, CORNER - 10);
+                break;
             }
-        } else {
-            layout.addError("No TV stand found in furniture database.");
+            default:
+                return false;
         }
 
-        // Optionally place bookshelf in a corner if space and budget allow
-        if (bookshelf != null) {
-            FurniturePosition bookPos = new FurniturePosition(bookshelf, 0.1, 0.1);
-            if (fitsInRoom(bookPos, roomW, roomH) && !overlapsAny(bookPos, placed)) {
-                if (totalCost + bookshelf.getPrice() <= budget) {
-                    placed.add(bookPos);
-                    totalCost += bookshelf.getPrice();
-                } else {
-                    layout.addError("Bookshelf available but exceeds budget.");
-                }
-            } // if doesn't fit, skip quietly
+        if (best(c, item, ws)) return true;
+        if (step.placement == PlacementStep.Placement.NEAR) {
+            // last resort: nearest free spot around the bottom-left corner
+            double[] slot = ws.slot;
+            double offset = step.wallOffset;
+            if (ws.occupancy.findFreeSlot(w, d, offset, roomH - d - offset, SLOT_STEP, step.searchRadius, slot)) {
+                ws.pendingX = slot[0];
+                ws.pendingY = slot[1];
+                ws.pendingRotated = false;
+                return true;
+            }
         }
+        return false;
+    }
 
-        // Optionally place side table next to sofa if budget allows
-        if (sidetable != null && !placed.isEmpty()) {
-            FurniturePosition sofaPos = placed.get(0);
-            // Place side table to the right of sofa
-            double x = sofaPos.getX() + sofaPos.getWidth() + 0.1;
-            double y = sofaPos.getY();
-            FurniturePosition sidePos = new FurniturePosition(sidetable, x, y);
-            if (fitsInRoom(sidePos, roomW, roomH) && !overlapsAny(sidePos, placed)) {
-                if (totalCost + sidetable.getPrice() <= budget) {
-                    placed.add(sidePos);
-                    totalCost += sidetable.getPrice();
-                } // else don't add
+    /**
+     * Pick the highest-scoring feasible candidate. Candidates are checked in
+     * generation order; anything that cannot beat the current best is skipped
+     * without a collision query. Stops after maxCandidates checks or when the
+     * per-placement time budget runs out (checked every few candidates).
+     * The winner is written to the workspace's pending fields.
+     */
+    private boolean best(CandidateBuffer c, Furniture item, PlacementWorkspace ws) {
+        OccupancyIndex occupancy = ws.occupancy;
+        double roomW = ws.roomW;
+        double roomH = ws.roomH;
+        long deadline = System.nanoTime() + candidateBudgetNanos;
+        int bestIndex = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int checked = 0;
+        for (int i = 0; i < c.size; i++) {
+            if (c.score[i] <= bestScore) continue;
+            if (checked >= maxCandidates || ((checked & 7) == 7 && System.nanoTime() > deadline)) break;
+            checked++;
+            double fw = c.rotated[i] ? item.getDepth() : item.getWidth();
+            double fd = c.rotated[i] ? item.getWidth() : item.getDepth();
+            if (fitsInRoom(c.x[i], c.y[i], fw, fd, roomW, roomH) && !occupancy.overlaps(c.x[i], c.y[i], fw, fd)) {
+                bestIndex = i;
+                bestScore = c.score[i];
             }
         }
+        if (bestIndex < 0) return false;
+        ws.pendingX = c.x[bestIndex];
+        ws.pendingY = c.y[bestIndex];
+        ws.pendingRotated = c.rotated[bestIndex];
+        return true;
+    }
 
-        // If still budget remains, optionally add armchair
-        if (armchair != null) {
-            if (totalCost + armchair.getPrice() <= budget) {
-                // attempt to place next to coffee table if possible
-                FurniturePosition pos = null;
-                for (FurniturePosition p : placed) {
-                    if ("coffee".equalsIgnoreCase(p.getFurniture().getCategory())) {
-                        double x = p.getX() + p.getWidth() + 0.3;
-                        double y = p.getY();
-                        FurniturePosition tryPos = new FurniturePosition(armchair, x, y);
-                        if (fitsInRoom(tryPos, roomW, roomH) && !overlapsAny(tryPos, placed)) {
-                            pos = tryPos;
-                            break;
-                        }
-                    }
-                }
-                if (pos == null) {
-                    // fallback: bottom-left corner
-                    FurniturePosition tryPos = new FurniturePosition(armchair, 0.2, roomH - armchair.getDepth() - 0.2);
-                    if (fitsInRoom(tryPos, roomW, roomH) && !overlapsAny(tryPos, placed)) {
-                        pos = tryPos;
-                    }
-                }
-                if (pos != null) {
-                    placed.add(pos);
-                    totalCost += armchair.getPrice();
+    /**
+     * Positions against a wall, at the given offset from it, centered and then
+     * sliding along the wall in SLIDE_STEP increments (lower score further
+     * out). Items on left/right walls are rotated so their back faces the wall.
+     */
+    private void alongWall(CandidateBuffer c, int wall, double w, double d, double roomW, double roomH,
+                           double offset, double score) {
+        boolean rot = !isHorizontal(wall);
+        double fw = rot ? d : w;
+        double fd = rot ? w : d;
+        double along = isHorizontal(wall) ? roomW - fw : roomH - fd;
+        if (along < 0) return;
+        double fixed;
+        switch (wall) {
+            case TOP: fixed = offset; break;
+            case BOTTOM: fixed = roomH - fd - offset; break;
+            case LEFT: fixed = offset; break;
+            default: fixed = roomW - fw - offset; break;
+        }
+        double center = along / 2.0;
+        for (int k = 0; k <= MAX_SLIDE_STEPS; k++) {
+            double s = score - k * SLIDE_PENALTY;
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                double pos = center + sign * k * SLIDE_STEP;
+                if (pos < 0 || pos > along) continue;
+                if (isHorizontal(wall)) {
+                    c.add(pos, fixed, rot, s);
+                } else {
+                    c.add(fixed, pos, rot, s);
                 }
+                if (k == 0) break;
             }
         }
+    }
 
-        // Set results
-        layout.setPlaced(placed);
-        layout.setTotalCost(totalCost);
-        layout.setRemainingBudget(Math.max(0, budget - totalCost));
-        return layout;
+    /** All four corners at the given margin, both orientations (unrotated preferred). */
+    private void corners(CandidateBuffer c, double w, double d, double roomW, double roomH,
+                         double margin, double score) {
+        for (int r = 0; r < 2; r++) {
+            boolean rot = r == 1;
+            double fw = rot ? d : w;
+            double fd = rot ? w : d;
+            double s = score - r * SLIDE_PENALTY;
+            c.add(margin, margin, rot, s);
+            c.add(roomW - fw - margin, margin, rot, s);
+            c.add(margin, roomH - fd - margin, rot, s);
+            c.add(roomW - fw - margin, roomH - fd - margin, rot, s);
+        }
     }
 
-    private Furniture findByCategory(List<Furniture> list, String category) {
-        if (category == null) return null;
-        for (Furniture f : list) {
-            if (category.equalsIgnoreCase(f.getCategory())) {
-                return f;
-            }
+    /**
+     * Centered in front of an item standing against the given wall (i.e. on
+     * the side facing away from it), gap meters away, oriented the same way
+     * as that wall's items.
+     */
+    private void inFront(CandidateBuffer c, PlacementWorkspace ws, int anchor, int wall, double w, double d,
+                         double gap, double score) {
+        boolean rot = !isHorizontal(wall);
+        double fw = rot ? d : w;
+        double fd = rot ? w : d;
+        double ax = ws.x[anchor], ay = ws.y[anchor], aw = ws.w[anchor], ad = ws.d[anchor];
+        double cx = ax + (aw - fw) / 2.0;
+        double cy = ay + (ad - fd) / 2.0;
+        switch (wall) {
+            case TOP: c.add(cx, ay + ad + gap, rot, score); break;
+            case BOTTOM: c.add(cx, ay - fd - gap, rot, score); break;
+            case LEFT: c.add(ax + aw + gap, cy, rot, score); break;
+            default: c.add(ax - fw - gap, cy, rot, score); break;
         }
-        return null;
     }
 
-    private boolean fitsInRoom(FurniturePosition pos, double roomW, double roomH) {
-        if (pos.getX() < 0 || pos.getY() < 0) return false;
-        if (pos.getX() + pos.getWidth() > roomW + 1e-6) return false;
-        if (pos.getY() + pos.getDepth() > roomH + 1e-6) return false;
-        return true;
+    private static int nearestWall(PlacementWorkspace ws, int i) {
+        double top = ws.y[i];
+        double bottom = ws.roomH - (ws.y[i] + ws.d[i]);
+        double left = ws.x[i];
+        double right = ws.roomW - (ws.x[i] + ws.w[i]);
+        double min = Math.min(Math.min(top, bottom), Math.min(left, right));
+        if (min == top) return TOP;
+        if (min == left) return LEFT;
+        if (min == bottom) return BOTTOM;
+        return RIGHT;
     }
 
-    private boolean overlapsAny(FurniturePosition candidate, List<FurniturePosition> placed) {
-        for (FurniturePosition p : placed) {
-            if (rectOverlap(candidate.getX(), candidate.getY(), candidate.getWidth(), candidate.getDepth(),
-                    p.getX(), p.getY(), p.getWidth(), p.getDepth())) {
-                return true;
-            }
+    private static boolean isHorizontal(int wall) {
+        return wall == TOP || wall == BOTTOM;
+    }
+
+    private static int opposite(int wall) {
+        switch (wall) {
+            case TOP: return BOTTOM;
+            case BOTTOM: return TOP;
+            case LEFT: return RIGHT;
+            default: return LEFT;
         }
-        return false;
     }
 
-    private boolean rectOverlap(double ax, double ay, double aw, double ah,
-                                double bx, double by, double bw, double bh) {
-        boolean noOverlap = ax + aw <= bx || bx + bw <= ax || ay + ah <= by || by + bh <= ay;
-        return !noOverlap;
+    private boolean fitsInRoom(double x, double y, double w, double d, double roomW, double roomH) {
+        if (x < 0 || y < 0) return false;
+        if (x + w > roomW + 1e-6) return false;
+        if (y + d > roomH + 1e-6) return false;
+        return true;
     }
 }
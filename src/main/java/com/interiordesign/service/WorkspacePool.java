@@ -0,0 +1,31 @@
+package com.interiordesign.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of idle PlacementWorkspaces, so their arrays and collision
+ * index are reused from one layout to the next whatever thread runs it.
+ * A ThreadLocal would not do that with virtual threads, where every request
+ * (and every batch or floor-plan room) runs on a new thread. At most
+ * capacity workspaces are kept; bursts beyond it allocate new ones that are
+ * dropped on release.
+ */
+final class WorkspacePool {
+
+    private final ArrayBlockingQueue<PlacementWorkspace> idle;
+
+    WorkspacePool(int capacity) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /** An idle workspace, or a new one; reset it before use. */
+    PlacementWorkspace acquire() {
+        PlacementWorkspace ws = idle.poll();
+        return ws != null ? ws : new PlacementWorkspace();
+    }
+
+    /** Return a workspace no longer referenced by the caller. */
+    void release(PlacementWorkspace ws) {
+        idle.offer(ws);
+    }
+}
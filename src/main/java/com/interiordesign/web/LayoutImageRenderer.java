@@ -0,0 +1,261 @@
+package com.interiordesign.web;
+
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Draws a RoomLayout as SVG or PNG (java.awt, headless) and caches the
+ * encoded image by a hash of what is drawn: format, scale, room size and
+ * each item's name, price and placed rectangle. Equal layouts share one
+ * cache entry whatever their id, and the hash doubles as a strong ETag.
+ * Item labels are left out below 30 pixels per meter (thumbnails).
+ *
+ * Meters: layout.image.cache{result=hit|miss}.
+ */
+@Component
+public class LayoutImageRenderer {
+
+    public static final int DEFAULT_SCALE = 60;
+    public static final int MIN_SCALE = 5;
+    public static final int MAX_SCALE = 200;
+
+    // below this scale tiles are too small for text; thumbnails show shapes only
+    private static final int LABEL_MIN_SCALE = 30;
+
+    private static final Color ROOM_FILL = new Color(0xF8F9FA);
+    private static final Color BORDER = new Color(0x333333);
+    private static final Color ITEM_FILL = new Color(0xEBF4FF);
+    private static final Color ITEM_BORDER = new Color(0x444444);
+
+    public enum Format {
+        SVG("image/svg+xml"),
+        PNG("image/png");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<String, byte[]> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LayoutImageRenderer(MeterRegistry registry,
+                               @Value("${layout.image.cache.max-entries:2000}") int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+    }
+
+    /**
+     * Strong ETag (quoted content hash) of the image render() would return.
+     * Cheap enough to answer conditional requests without rendering.
+     */
+    public String etag(RoomLayout layout, Format format, int scale) {
+        return '"' + contentHash(layout, format, scale) + '"';
+    }
+
+    public byte[] render(RoomLayout layout, Format format, int scale) {
+        String key = contentHash(layout, format, scale);
+        byte[] image;
+        synchronized (cache) {
+            image = cache.get(key);
+        }
+        if (image != null) {
+            hits.increment();
+            return image;
+        }
+        misses.increment();
+        image = format == Format.SVG ? svg(layout, scale).getBytes(StandardCharsets.UTF_8) : png(layout, scale);
+        if (maxEntries > 0) {
+            synchronized (cache) {
+                cache.put(key, image);
+                if (cache.size() > maxEntries) {
+                    cache.remove(cache.keySet().iterator().next());
+                }
+            }
+        }
+        return image;
+    }
+
+    /** SVG markup for embedding in a page. */
+    public String svgMarkup(RoomLayout layout, int scale) {
+        return new String(render(layout, Format.SVG, scale), StandardCharsets.UTF_8);
+    }
+
+    /** Scale in pixels per meter, clamped to MIN_SCALE..MAX_SCALE. */
+    public static int clampScale(int scale) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    private static String svg(RoomLayout layout, int scale) {
+        double width = layout.getRoom().getLength() * scale;
+        double height = layout.getRoom().getWidth() * scale;
+        StringBuilder sb = new StringBuilder(512 + layout.getPlaced().size() * 320);
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(num(width + 4))
+                .append("\" height=\"").append(num(height + 4))
+                .append("\" viewBox=\"-2 -2 ").append(num(width + 4)).append(' ').append(num(height + 4))
+                .append("\" font-family=\"sans-serif\">");
+        sb.append("<rect width=\"").append(num(width)).append("\" height=\"").append(num(height))
+                .append("\" fill=\"#f8f9fa\" stroke=\"#333\" stroke-width=\"2\"/>");
+        for (FurniturePosition p : layout.getPlaced()) {
+            double x = p.getX() * scale;
+            double y = p.getY() * scale;
+            double w = p.getWidth() * scale;
+            double h = p.getDepth() * scale;
+            double cx = x + w / 2;
+            double cy = y + h / 2;
+            sb.append("<g><rect x=\"").append(num(x)).append("\" y=\"").append(num(y))
+                    .append("\" width=\"").append(num(w)).append("\" height=\"").append(num(h))
+                    .append("\" rx=\"6\" fill=\"#007bff\" fill-opacity=\"0.08\" stroke=\"#444\"/>");
+            if (scale < LABEL_MIN_SCALE) {
+                sb.append("</g>");
+                continue;
+            }
+            sb.append("<text x=\"").append(num(cx)).append("\" y=\"").append(num(cy - 2))
+                    .append("\" text-anchor=\"middle\" font-size=\"12\" font-weight=\"bold\">");
+            escape(sb, p.getFurniture().getName());
+            sb.append("</text><text x=\"").append(num(cx)).append("\" y=\"").append(num(cy + 12))
+                    .append("\" text-anchor=\"middle\" font-size=\"10\">")
+                    .append(p.getFurniture().getPrice()).append(" USD</text></g>");
+        }
+        return sb.append("</svg>").toString();
+    }
+
+    private static byte[] png(RoomLayout layout, int scale) {
+        int width = (int) Math.ceil(layout.getRoom().getLength() * scale) + 4;
+        int height = (int) Math.ceil(layout.getRoom().getWidth() * scale) + 4;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.translate(2, 2);
+            g.setColor(ROOM_FILL);
+            g.fillRect(0, 0, width - 4, height - 4);
+            g.setColor(BORDER);
+            g.setStroke(new BasicStroke(2));
+            g.drawRect(0, 0, width - 4, height - 4);
+
+            g.setStroke(new BasicStroke(1));
+            Font name = new Font(Font.SANS_SERIF, Font.BOLD, 12);
+            Font price = new Font(Font.SANS_SERIF, Font.PLAIN, 10);
+            for (FurniturePosition p : layout.getPlaced()) {
+                RoundRectangle2D.Double tile = new RoundRectangle2D.Double(p.getX() * scale, p.getY() * scale,
+                        p.getWidth() * scale, p.getDepth() * scale, 12, 12);
+                g.setColor(ITEM_FILL);
+                g.fill(tile);
+                g.setColor(ITEM_BORDER);
+                g.draw(tile);
+                if (scale < LABEL_MIN_SCALE) continue;
+                float cx = (float) tile.getCenterX();
+                float cy = (float) tile.getCenterY();
+                centered(g, name, p.getFurniture().getName(), cx, cy - 2);
+                centered(g, price, p.getFurniture().getPrice() + " USD", cx, cy + 12);
+            }
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void centered(Graphics2D g, Font font, String text, float cx, float baseline) {
+        if (text == null) return;
+        g.setFont(font);
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(text, cx - metrics.stringWidth(text) / 2f, baseline);
+    }
+
+    private static String contentHash(RoomLayout layout, Format format, int scale) {
+        MessageDigest digest = sha256();
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        buf.putInt(format.ordinal()).putInt(scale)
+                .putDouble(layout.getRoom().getLength()).putDouble(layout.getRoom().getWidth())
+                .putInt(layout.getPlaced().size());
+        digest.update(buf.flip());
+        for (FurniturePosition p : layout.getPlaced()) {
+            String name = p.getFurniture().getName();
+            byte[] nameBytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            buf.clear();
+            buf.putInt(nameBytes.length).putInt(p.getFurniture().getPrice())
+                    .putDouble(p.getX()).putDouble(p.getY()).putDouble(p.getWidth()).putDouble(p.getDepth());
+            digest.update(buf.flip());
+            digest.update(nameBytes);
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String num(double v) {
+        return String.format(Locale.ROOT, "%.2f", v);
+    }
+
+    private static void escape(StringBuilder sb, String s) {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("layout.image.cache")
+                .description("Rendered layout image lookups by cache result")
+                .tag("result", result)
+                .register(registry);
+    }
+}
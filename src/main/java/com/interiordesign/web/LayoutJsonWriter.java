@@ -0,0 +1,192 @@
+package com.interiordesign.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interiordesign.model.BatchLayoutResult;
+import com.interiordesign.model.FloorPlanLayout;
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.PlacedItem;
+import com.interiordesign.model.RankedLayout;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the compact layout JSON straight to the response stream with a
+ * JsonGenerator; no intermediate DTO tree or byte buffers, no bean
+ * introspection. Shape of one layout:
+ *
+ * {"id":101,"length":6.0,"width":5.0,"budget":2500,"totalCost":1950,"remainingBudget":550,
+ *  "items":[{"id":1,"category":"sofa","x":2.0,"y":0.5,"w":2.0,"d":0.9,"price":800}],
+ *  "errors":[]}
+ *
+ * w/d are the placed footprint; rotated items also carry "rotated":true.
+ * "id" is the layout history id, omitted when the layout was not recorded.
+ */
+@Component
+public class LayoutJsonWriter {
+
+    private final JsonFactory jsonFactory;
+
+    public LayoutJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void writeLayout(OutputStream out, RoomLayout layout) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            layout(gen, layout);
+        }
+    }
+
+    /** One NDJSON line (including the trailing newline) of a batch response. */
+    public void writeBatchLine(OutputStream out, BatchLayoutResult result) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("index", result.getIndex());
+            if (result.getLayout() != null) {
+                gen.writeFieldName("layout");
+                layout(gen, result.getLayout());
+            }
+            if (result.getErrors() != null) {
+                strings(gen, "errors", result.getErrors());
+            }
+            gen.writeEndObject();
+        }
+        out.write('\n');
+    }
+
+    /** {"layouts":[{"rank":1,"score":7.25,"layout":{...}}, ...]}, best first. */
+    public void writeAlternatives(OutputStream out, List<RankedLayout> alternatives) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("layouts");
+            for (RankedLayout alternative : alternatives) {
+                gen.writeStartObject();
+                gen.writeNumberField("rank", alternative.getRank());
+                gen.writeNumberField("score", Math.round(alternative.getScore() * 1000) / 1000.0);
+                gen.writeFieldName("layout");
+                layout(gen, alternative.getLayout());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * {"budget":8000,"totalCost":7450,"remainingBudget":550,"rounds":1,
+     *  "rooms":[{"name":"Living room","role":"living","layout":{...}}, ...],"errors":[]}
+     */
+    public void writeFloorPlan(OutputStream out, FloorPlanLayout plan) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("budget", plan.getBudget());
+            gen.writeNumberField("totalCost", plan.getTotalCost());
+            gen.writeNumberField("remainingBudget", plan.getRemainingBudget());
+            gen.writeNumberField("rounds", plan.getRounds());
+            gen.writeArrayFieldStart("rooms");
+            for (FloorPlanLayout.Entry room : plan.getRooms()) {
+                gen.writeStartObject();
+                if (room.getName() != null) {
+                    gen.writeStringField("name", room.getName());
+                }
+                gen.writeStringField("role", room.getRole());
+                gen.writeFieldName("layout");
+                layout(gen, room.getLayout());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            strings(gen, "errors", plan.getErrors());
+            gen.writeEndObject();
+        }
+    }
+
+    /** {"errors":["..."]}, the shape of every API error response. */
+    public void writeErrors(OutputStream out, List<String> errors) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.writeStartObject();
+            strings(gen, "errors", errors);
+            gen.writeEndObject();
+        }
+    }
+
+    public void writeCatalog(OutputStream out, long version, List<Furniture> items) throws IOException {
+        try (JsonGenerator gen = generator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", version);
+            gen.writeArrayFieldStart("items");
+            for (Furniture f : items) {
+                gen.writeStartObject();
+                gen.writeNumberField("id", f.getId());
+                gen.writeStringField("name", f.getName());
+                gen.writeStringField("category", f.getCategory());
+                gen.writeNumberField("w", f.getWidth());
+                gen.writeNumberField("d", f.getDepth());
+                gen.writeNumberField("price", f.getPrice());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        // leave the servlet stream open; we only flush
+        return jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void layout(JsonGenerator gen, RoomLayout layout) throws IOException {
+        gen.writeStartObject();
+        if (layout.getId() != null) {
+            gen.writeNumberField("id", layout.getId());
+        }
+        Room room = layout.getRoom();
+        if (room != null) {
+            gen.writeNumberField("length", room.getLength());
+            gen.writeNumberField("width", room.getWidth());
+            gen.writeNumberField("budget", room.getBudget());
+        }
+        gen.writeNumberField("totalCost", layout.getTotalCost());
+        gen.writeNumberField("remainingBudget", layout.getRemainingBudget());
+        gen.writeArrayFieldStart("items");
+        for (PlacedItem item : layout.getFurniturePositions()) {
+            gen.writeStartObject();
+            if (item.getCatalogId() != null) {
+                gen.writeNumberField("id", item.getCatalogId());
+            }
+            gen.writeStringField("category", item.getCategory());
+            gen.writeNumberField("x", round(item.getX()));
+            gen.writeNumberField("y", round(item.getY()));
+            gen.writeNumberField("w", item.getWidth());
+            gen.writeNumberField("d", item.getDepth());
+            gen.writeNumberField("price", item.getPrice());
+            if (item.isRotated()) {
+                gen.writeBooleanField("rotated", true);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        strings(gen, "errors", layout.getErrors());
+        gen.writeEndObject();
+    }
+
+    private static void strings(JsonGenerator gen, String field, List<String> values) throws IOException {
+        gen.writeArrayFieldStart(field);
+        for (String v : values) {
+            gen.writeString(v);
+        }
+        gen.writeEndArray();
+    }
+
+    /** Millimetre precision; drops float noise such as 3.6999999999999993. */
+    private static double round(double meters) {
+        return Math.round(meters * 1000) / 1000.0;
+    }
+}
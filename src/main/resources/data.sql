@@ -5,3 +5,5 @@ INSERT INTO furniture (name, width, depth, price, category) VALUES
 ('Bookshelf', 0.8, 0.3, 150, 'bookshelf'),
 ('Side Table', 0.5, 0.5, 100, 'sidetable'),
 ('Armchair', 0.8, 0.8, 400, 'armchair');
+
+INSERT INTO catalog_version (id, version, updated_at) VALUES (1, 1, CURRENT_TIMESTAMP);
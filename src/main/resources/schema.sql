@@ -1,4 +1,5 @@
 DROP TABLE IF EXISTS furniture;
+DROP TABLE IF EXISTS catalog_version;
 
 CREATE TABLE furniture (
   id IDENTITY PRIMARY KEY,
@@ -8,3 +9,86 @@ CREATE TABLE furniture (
   price INT NOT NULL,
   category VARCHAR(50) NOT NULL
 );
+
+-- Per-category lookups: cheapest-first scans bounded by budget, and
+-- footprint range filters against the room size.
+CREATE INDEX idx_furniture_category_price ON furniture (category, price);
+CREATE INDEX idx_furniture_category_size ON furniture (category, width, depth);
+-- Natural key a REPLACE import matches items by, so they keep their ids.
+CREATE INDEX idx_furniture_category_name ON furniture (category, name);
+
+-- Single-row table; bump version whenever furniture rows change so that
+-- in-memory catalog snapshots know to reload.
+CREATE TABLE catalog_version (
+  id INT PRIMARY KEY,
+  version BIGINT NOT NULL,
+  updated_at TIMESTAMP NOT NULL
+);
+
+-- Bulk catalog imports. A failed import can be resumed from its last
+-- committed chunk while the application runs; the default datasource is an
+-- in-memory H2 database, so jobs (like everything else) start over on restart.
+CREATE TABLE IF NOT EXISTS catalog_import_job (
+  id IDENTITY PRIMARY KEY,
+  source VARCHAR(1000) NOT NULL,
+  format VARCHAR(10) NOT NULL,
+  mode VARCHAR(10) NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  records_read BIGINT NOT NULL,
+  rows_staged BIGINT NOT NULL,
+  rows_rejected BIGINT NOT NULL,
+  error VARCHAR(1000),
+  started_at TIMESTAMP NOT NULL,
+  updated_at TIMESTAMP NOT NULL
+);
+
+-- Validated rows of an import, copied into furniture in one transaction
+-- once the whole feed has been read.
+CREATE TABLE IF NOT EXISTS furniture_import (
+  job_id BIGINT NOT NULL,
+  seq BIGINT NOT NULL,
+  name VARCHAR(100) NOT NULL,
+  width DOUBLE NOT NULL,
+  depth DOUBLE NOT NULL,
+  price INT NOT NULL,
+  category VARCHAR(50) NOT NULL,
+  PRIMARY KEY (job_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS idx_furniture_import_key ON furniture_import (job_id, category, name, seq);
+
+-- Generated layouts, written asynchronously by LayoutHistoryService; ids are
+-- allocated in blocks from the sequence. With the default in-memory H2
+-- datasource history lasts until the application stops.
+CREATE SEQUENCE IF NOT EXISTS layout_history_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE IF NOT EXISTS layout_history (
+  id BIGINT PRIMARY KEY,
+  room_length DOUBLE NOT NULL,
+  room_width DOUBLE NOT NULL,
+  budget INT NOT NULL,
+  role VARCHAR(50), -- floor plan room role; NULL if laid out with all rules
+  total_cost INT NOT NULL,
+  remaining_budget INT NOT NULL,
+  catalog_version BIGINT NOT NULL,
+  errors VARCHAR(2000),
+  created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_layout_history_created ON layout_history (created_at);
+
+-- One row per placed item; width/depth are catalog dimensions (before rotation).
+CREATE TABLE IF NOT EXISTS layout_placement (
+  layout_id BIGINT NOT NULL,
+  seq INT NOT NULL,
+  furniture_id BIGINT,
+  name VARCHAR(100) NOT NULL,
+  category VARCHAR(50) NOT NULL,
+  width DOUBLE NOT NULL,
+  depth DOUBLE NOT NULL,
+  price INT NOT NULL,
+  x DOUBLE NOT NULL,
+  y DOUBLE NOT NULL,
+  rotated BOOLEAN NOT NULL,
+  PRIMARY KEY (layout_id, seq)
+);
@@ -0,0 +1,83 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.Room;
+import com.interiordesign.service.BatchLayoutService;
+import com.interiordesign.service.DatabaseBusyException;
+import com.interiordesign.service.LayoutService;
+import com.interiordesign.web.LayoutJsonWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LayoutApiController.class)
+@Import({LayoutJsonWriter.class, SimpleMeterRegistry.class})
+class ApiExceptionHandlerTest {
+
+    private static final String ROOM = "{\"length\":6,\"width\":5,\"budget\":2500}";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private LayoutService layoutService;
+
+    @MockBean
+    private BatchLayoutService batchLayoutService;
+
+    @Test
+    void unexpectedFailureIsJson500() throws Exception {
+        when(layoutService.createLayout(any(Room.class))).thenThrow(new IllegalStateException("boom"));
+
+        mvc.perform(post("/api/layouts").contentType(MediaType.APPLICATION_JSON).content(ROOM))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors[0]").value("Request failed: boom"));
+    }
+
+    @Test
+    void fullBulkheadIs503WithRetryAfter() throws Exception {
+        when(layoutService.findLayout(anyLong())).thenThrow(new DatabaseBusyException("Catalog database busy"));
+
+        mvc.perform(get("/api/layouts/7"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.errors[0]").value("Catalog database busy"));
+    }
+
+    @Test
+    void malformedBodyIsJson400() throws Exception {
+        mvc.perform(post("/api/layouts").contentType(MediaType.APPLICATION_JSON).content("{\"length\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors").isArray());
+    }
+
+    @Test
+    void badPathVariableIsJson400() throws Exception {
+        mvc.perform(get("/api/layouts/abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors").isArray());
+    }
+
+    @Test
+    void unknownLayoutIs404() throws Exception {
+        mvc.perform(get("/api/layouts/7"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,74 @@
+package com.interiordesign.controller;
+
+import com.interiordesign.model.Room;
+import com.interiordesign.service.DatabaseBusyException;
+import com.interiordesign.service.LayoutService;
+import com.interiordesign.web.LayoutImageRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@WebMvcTest(HomeController.class)
+@Import(SimpleMeterRegistry.class)
+class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private LayoutService layoutService;
+
+    @MockBean
+    private LayoutImageRenderer imageRenderer;
+
+    @Test
+    void unknownLayoutIs404ErrorPage() throws Exception {
+        mvc.perform(get("/layout/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(view().name("error-page"))
+                .andExpect(model().attribute("status", 404))
+                .andExpect(model().attribute("message", "Layout 99 not found"));
+    }
+
+    @Test
+    void adjustingUnknownLayoutIs404ErrorPage() throws Exception {
+        mvc.perform(post("/layout/99/adjust").param("length", "5").param("width", "4").param("budget", "2000"))
+                .andExpect(status().isNotFound())
+                .andExpect(view().name("error-page"));
+    }
+
+    @Test
+    void failureIs500ErrorPage() throws Exception {
+        when(layoutService.createLayout(any(Room.class))).thenThrow(new IllegalStateException("boom"));
+
+        mvc.perform(post("/layout").param("length", "5").param("width", "4").param("budget", "2000"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(view().name("error-page"))
+                .andExpect(model().attribute("message", "boom"));
+    }
+
+    @Test
+    void busyDatabaseIs503ErrorPage() throws Exception {
+        when(layoutService.findLayout(anyLong())).thenThrow(new DatabaseBusyException("Catalog database busy"));
+
+        mvc.perform(get("/layout/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(view().name("error-page"));
+    }
+}
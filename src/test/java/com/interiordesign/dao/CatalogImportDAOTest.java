@@ -0,0 +1,79 @@
+package com.interiordesign.dao;
+
+import com.interiordesign.model.CatalogImportJob;
+import com.interiordesign.model.Furniture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@Import(CatalogImportDAO.class)
+class CatalogImportDAOTest {
+
+    @Autowired
+    private CatalogImportDAO importDAO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replaceKeepsTheIdsOfItemsStillInTheFeed() {
+        long sofa = idOf("Sofa", "sofa");
+        long bookshelf = idOf("Bookshelf", "bookshelf");
+        long job = importDAO.createJob("feed.csv", CatalogImportJob.Format.CSV, CatalogImportJob.Mode.REPLACE);
+        importDAO.stageRows(job, 0, List.of(
+                new Furniture(null, "Sofa", 2.1, 0.9, 750, "sofa"),
+                new Furniture(null, "Bookshelf", 0.8, 0.3, 120, "bookshelf"),
+                new Furniture(null, "Bookshelf", 0.8, 0.3, 140, "bookshelf"), // repeated: last one wins
+                new Furniture(null, "Floor Lamp", 0.4, 0.4, 90, "sidetable")));
+
+        int published = importDAO.publish(job, CatalogImportJob.Mode.REPLACE);
+
+        assertEquals(3, published);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, name, width, price FROM furniture");
+        assertEquals(3, rows.size());
+        assertEquals(sofa, idOf("Sofa", "sofa"));
+        assertEquals(750, price(sofa));
+        assertEquals(2.1, jdbcTemplate.queryForObject("SELECT width FROM furniture WHERE id = ?", Double.class, sofa));
+        assertEquals(bookshelf, idOf("Bookshelf", "bookshelf"));
+        assertEquals(140, price(bookshelf));
+        assertTrue(idOf("Floor Lamp", "sidetable") > bookshelf);
+        assertFalse(exists("Coffee Table", "coffee"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM furniture_import", Integer.class));
+    }
+
+    @Test
+    void appendInsertsEveryStagedRow() {
+        int before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM furniture", Integer.class);
+        long job = importDAO.createJob("feed.csv", CatalogImportJob.Format.CSV, CatalogImportJob.Mode.APPEND);
+        importDAO.stageRows(job, 0, List.of(
+                new Furniture(null, "Sofa", 2.1, 0.9, 750, "sofa"),
+                new Furniture(null, "Floor Lamp", 0.4, 0.4, 90, "sidetable")));
+
+        assertEquals(2, importDAO.publish(job, CatalogImportJob.Mode.APPEND));
+        assertEquals(before + 2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM furniture", Integer.class));
+    }
+
+    private long idOf(String name, String category) {
+        return jdbcTemplate.queryForObject("SELECT id FROM furniture WHERE name = ? AND category = ?", Long.class,
+                name, category);
+    }
+
+    private int price(long id) {
+        return jdbcTemplate.queryForObject("SELECT price FROM furniture WHERE id = ?", Integer.class, id);
+    }
+
+    private boolean exists(String name, String category) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM furniture WHERE name = ? AND category = ?",
+                Integer.class, name, category) > 0;
+    }
+}
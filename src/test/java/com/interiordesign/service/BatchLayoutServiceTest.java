@@ -0,0 +1,134 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.BatchLayoutResult;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchLayoutServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private LayoutService layoutService;
+    private BatchLayoutService batch;
+
+    @BeforeEach
+    void setUp() {
+        layoutService = mock(LayoutService.class);
+        batch = new BatchLayoutService(layoutService, validator, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batch.shutdown();
+    }
+
+    @Test
+    void everyRoomGetsOneResult() {
+        when(layoutService.createLayout(any(Room.class))).thenReturn(new RoomLayout());
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rooms.add(new Room(5.0, 4.0, 2000));
+        }
+        rooms.add(null);
+        rooms.add(new Room(1.0, 4.0, 2000));
+
+        List<BatchLayoutResult> results = stream(rooms);
+
+        assertEquals(rooms.size(), results.size());
+        assertEquals(indexes(rooms.size()), indexesOf(results));
+        assertNotNull(byIndex(results, 0).getLayout());
+        assertEquals(List.of("Room is required"), byIndex(results, 20).getErrors());
+        assertNull(byIndex(results, 21).getLayout());
+    }
+
+    @Test
+    void layoutThrowingAnErrorStillCompletesItsSlot() {
+        when(layoutService.createLayout(any(Room.class)))
+                .thenReturn(new RoomLayout())
+                .thenThrow(new StackOverflowError())
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(new RoomLayout());
+        List<Room> rooms = List.of(new Room(5.0, 4.0, 2000), new Room(5.0, 4.0, 2000),
+                new Room(5.0, 4.0, 2000), new Room(5.0, 4.0, 2000), new Room(5.0, 4.0, 2000));
+
+        List<BatchLayoutResult> results = stream(rooms);
+
+        assertEquals(indexes(rooms.size()), indexesOf(results));
+        long failed = results.stream().filter(r -> r.getErrors() != null).count();
+        assertEquals(2, failed);
+    }
+
+    @Test
+    void shutDownExecutorFailsRoomsInsteadOfHanging() {
+        batch.shutdown();
+        List<Room> rooms = List.of(new Room(5.0, 4.0, 2000), new Room(5.0, 4.0, 2000));
+
+        List<BatchLayoutResult> results = stream(rooms);
+
+        assertEquals(indexes(rooms.size()), indexesOf(results));
+        for (BatchLayoutResult result : results) {
+            assertNotNull(result.getErrors());
+        }
+    }
+
+    @Test
+    void sinkFailureStopsTheBatch() {
+        when(layoutService.createLayout(any(Room.class))).thenReturn(new RoomLayout());
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rooms.add(new Room(5.0, 4.0, 2000));
+        }
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class,
+                () -> batch.streamLayouts(rooms, result -> {
+                    throw new IOException("client went away");
+                })));
+    }
+
+    private List<BatchLayoutResult> stream(List<Room> rooms) {
+        List<BatchLayoutResult> results = new ArrayList<>();
+        assertTimeoutPreemptively(TIMEOUT, () -> batch.streamLayouts(rooms, results::add));
+        return results;
+    }
+
+    private static BatchLayoutResult byIndex(List<BatchLayoutResult> results, int index) {
+        return results.stream().filter(r -> r.getIndex() == index).findFirst().orElseThrow();
+    }
+
+    private static Set<Integer> indexesOf(List<BatchLayoutResult> results) {
+        Set<Integer> indexes = new TreeSet<>();
+        for (BatchLayoutResult result : results) {
+            indexes.add(result.getIndex());
+        }
+        return indexes;
+    }
+
+    private static Set<Integer> indexes(int n) {
+        Set<Integer> indexes = new TreeSet<>();
+        for (int i = 0; i < n; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,66 @@
+package com.interiordesign.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interiordesign.dao.CatalogImportDAO;
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.CatalogImportJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogImportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final CatalogImportDAO importDAO = mock(CatalogImportDAO.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private CatalogImportService service;
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void errorDuringImportMarksTheJobFailed() throws Exception {
+        Files.writeString(dir.resolve("feed.csv"), "name,width,depth,price,category\nSofa,2.0,0.9,800,sofa\n");
+        CatalogImportJob job = job();
+        when(importDAO.createJob("feed.csv", CatalogImportJob.Format.CSV, CatalogImportJob.Mode.REPLACE))
+                .thenReturn(1L);
+        when(importDAO.findJob(1L)).thenReturn(job);
+        doThrow(new OutOfMemoryError("Java heap space")).when(transactionTemplate).executeWithoutResult(any());
+        service = new CatalogImportService(importDAO, mock(FurnitureDAO.class), mock(CatalogService.class),
+                new RuleEngine(), transactionTemplate, new ObjectMapper(), dir.toString(), 10);
+
+        service.start("feed.csv", null, CatalogImportJob.Mode.REPLACE);
+
+        verify(importDAO, timeout(5000)).updateStatus(eq(1L), eq(CatalogImportJob.Status.FAILED),
+                eq("Java heap space"));
+    }
+
+    private static CatalogImportJob job() {
+        CatalogImportJob job = new CatalogImportJob();
+        job.setId(1L);
+        job.setSource("feed.csv");
+        job.setFormat(CatalogImportJob.Format.CSV);
+        job.setMode(CatalogImportJob.Mode.REPLACE);
+        job.setStatus(CatalogImportJob.Status.RUNNING);
+        job.setStartedAt(Instant.now());
+        job.setUpdatedAt(Instant.now());
+        return job;
+    }
+}
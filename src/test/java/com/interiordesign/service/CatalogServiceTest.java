@@ -0,0 +1,98 @@
+package com.interiordesign.service;
+
+import com.interiordesign.dao.FurnitureDAO;
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.Room;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Catalog reads against H2 while another connection commits a catalog write
+ * in the middle of them.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void restoreCatalog() {
+        jdbcTemplate.update("UPDATE furniture SET price = 800 WHERE category = 'sofa'");
+        jdbcTemplate.update("UPDATE furniture SET price = 150 WHERE category = 'bookshelf'");
+        jdbcTemplate.update("UPDATE catalog_version SET version = 1 WHERE id = 1");
+    }
+
+    @Test
+    void queryIndexDoesNotSeeWritesCommittedDuringItsQueries() {
+        FurnitureDAO dao = new FurnitureDAO(jdbcTemplate) {
+            private int queries;
+
+            @Override
+            public List<Furniture> findAffordableFitting(String category, int maxPrice, double maxWidth,
+                                                         double maxDepth, int limit) {
+                // one write after the version check, one between the category queries
+                if (queries++ < 2) writeConcurrently();
+                return super.findAffordableFitting(category, maxPrice, maxWidth, maxDepth, limit);
+            }
+        };
+
+        CatalogIndex index = service(dao).queryIndex(new Room(5.0, 4.0, 2000), List.of("sofa", "bookshelf"), 1);
+
+        assertEquals(800, index.cheapestFitting("sofa", 5.0, 4.0).getPrice());
+        assertEquals(150, index.cheapestFitting("bookshelf", 5.0, 4.0).getPrice());
+        assertEquals(3, dao.findCatalogVersion());
+    }
+
+    @Test
+    void snapshotDoesNotSeeWritesCommittedAfterTheVersionWasRead() {
+        FurnitureDAO dao = new FurnitureDAO(jdbcTemplate) {
+            @Override
+            public List<Furniture> findAll() {
+                writeConcurrently();
+                return super.findAll();
+            }
+        };
+
+        CatalogSnapshot snapshot = service(dao).reload();
+
+        assertEquals(1, snapshot.getVersion());
+        for (Furniture item : snapshot.getItems()) {
+            if (item.getCategory().equals("sofa")) assertEquals(800, item.getPrice());
+            if (item.getCategory().equals("bookshelf")) assertEquals(150, item.getPrice());
+        }
+    }
+
+    private CatalogService service(FurnitureDAO dao) {
+        return new CatalogService(dao, new LayoutMetrics(new SimpleMeterRegistry()), transactionManager, 200);
+    }
+
+    /**
+     * Commit a price change and version bump on another thread, and so on
+     * another connection, and wait for it.
+     */
+    private void writeConcurrently() {
+        TransactionTemplate writes = new TransactionTemplate(transactionManager);
+        CompletableFuture.runAsync(() -> writes.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE furniture SET price = price + 1000 WHERE category IN ('sofa', 'bookshelf')");
+            jdbcTemplate.update("UPDATE catalog_version SET version = version + 1 WHERE id = 1");
+        })).join();
+    }
+}
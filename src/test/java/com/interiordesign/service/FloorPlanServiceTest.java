@@ -0,0 +1,97 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.FloorPlan;
+import com.interiordesign.model.FloorPlanLayout;
+import com.interiordesign.model.FloorPlanRoom;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FloorPlanServiceTest {
+
+    private final LayoutHistoryService history = mock(LayoutHistoryService.class);
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final FloorPlanService service = service();
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void roomBudgetsAddUpToThePlanBudget() {
+        for (int budget : new int[] {1500, 1600, 2500, 4000, 10000, 29000}) {
+            FloorPlanLayout result = service.plan(plan(budget));
+
+            int allocated = 0;
+            int spent = 0;
+            for (FloorPlanLayout.Entry entry : result.getRooms()) {
+                RoomLayout layout = entry.getLayout();
+                allocated += layout.getRoom().getBudget();
+                spent += layout.getTotalCost();
+                // adjusting the layout later validates its room again
+                assertEquals(Set.of(), validator.validate(layout.getRoom()), entry.getName() + " for $" + budget);
+                assertEquals(Math.max(0, layout.getRoom().getBudget() - layout.getTotalCost()),
+                        layout.getRemainingBudget());
+            }
+            assertEquals(budget, allocated, "room budgets for $" + budget);
+            assertEquals(spent, result.getTotalCost(), "total cost for $" + budget);
+            if (result.getTotalCost() <= budget) {
+                assertEquals(budget, result.getTotalCost() + result.getRemainingBudget());
+                assertTrue(result.getErrors().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void budgetThatCannotGiveEveryRoomTheRoomMinimumIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.plan(plan(1499)));
+
+        assertEquals("budget: $1499 cannot be split into 3 room budgets of $500 to $10000", e.getMessage());
+        verify(history, never()).record(any(RoomLayout.class), anyLong());
+    }
+
+    @Test
+    void roomLayoutsAreRecordedWithTheirRole() {
+        service.plan(plan(4000));
+
+        ArgumentCaptor<RoomLayout> recorded = ArgumentCaptor.forClass(RoomLayout.class);
+        verify(history, times(3)).record(recorded.capture(), anyLong());
+        assertEquals(List.of("living", "bedroom", "study"),
+                recorded.getAllValues().stream().map(RoomLayout::getRole).toList());
+    }
+
+    private FloorPlanService service() {
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.current()).thenReturn(new CatalogSnapshot(1, TestCatalog.withVariants(), Instant.now()));
+        when(history.record(any(RoomLayout.class), anyLong())).thenReturn(true);
+        RuleEngine engine = new RuleEngine();
+        return new FloorPlanService(catalogService, engine, new LayoutMetrics(new SimpleMeterRegistry()), history, 3);
+    }
+
+    private static FloorPlan plan(int budget) {
+        return new FloorPlan(budget, List.of(
+                new FloorPlanRoom("Living room", "living", 6.0, 5.0),
+                new FloorPlanRoom("Bedroom", " Bedroom ", 4.0, 4.0),
+                new FloorPlanRoom("Study", "study", 3.0, 3.0)));
+    }
+}
@@ -0,0 +1,185 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LayoutAtlasTest {
+
+    // grid points 3, 9, 15 m and $500, $5250, $10000
+    private static final double DIMENSION_STEP = 6.0;
+    private static final int BUDGET_STEP = 4750;
+
+    @TempDir
+    Path dir;
+
+    private final RuleEngine engine = new RuleEngine();
+
+    @Test
+    void reloadWithSameContentKeepsTheAtlas() throws Exception {
+        LayoutAtlasFile atlas = build(snapshot(1, TestCatalog.items()));
+
+        assertTrue(atlas.matches(snapshot(2, TestCatalog.items()), engine.rules(), DIMENSION_STEP, BUDGET_STEP));
+    }
+
+    @Test
+    void changedPriceOrSizeInvalidatesTheAtlas() throws Exception {
+        LayoutAtlasFile atlas = build(snapshot(1, TestCatalog.items()));
+
+        List<Furniture> cheaper = TestCatalog.items();
+        cheaper.get(0).setPrice(700);
+        List<Furniture> smaller = TestCatalog.items();
+        smaller.get(0).setWidth(1.8);
+
+        // same version and item count: only the content differs
+        assertFalse(atlas.matches(snapshot(1, cheaper), engine.rules(), DIMENSION_STEP, BUDGET_STEP));
+        assertFalse(atlas.matches(snapshot(1, smaller), engine.rules(), DIMENSION_STEP, BUDGET_STEP));
+    }
+
+    @Test
+    void reorderedItemsInvalidateTheAtlas() throws Exception {
+        LayoutAtlasFile atlas = build(snapshot(1, TestCatalog.items()));
+
+        List<Furniture> reordered = TestCatalog.items();
+        Collections.reverse(reordered);
+
+        assertFalse(atlas.matches(snapshot(1, reordered), engine.rules(), DIMENSION_STEP, BUDGET_STEP));
+    }
+
+    @Test
+    void otherRulesOrGridInvalidateTheAtlas() throws Exception {
+        CatalogSnapshot snapshot = snapshot(1, TestCatalog.items());
+        LayoutAtlasFile atlas = build(snapshot);
+        PlacementRules other = TestCatalog.rules("{'rules':[{'category':'sofa','placement':'longest-wall',"
+                + "'wallOffset':0.5,'budget':'required','weight':10}]}");
+
+        assertFalse(atlas.matches(snapshot, other, DIMENSION_STEP, BUDGET_STEP));
+        assertFalse(atlas.matches(snapshot, engine.rules(), 3.0, BUDGET_STEP));
+        assertFalse(atlas.matches(snapshot, engine.rules(), DIMENSION_STEP, 100));
+    }
+
+    @Test
+    void exactOnlyAnswersGridPointsWithTheEngineLayout() throws Exception {
+        CatalogSnapshot snapshot = snapshot(1, TestCatalog.items());
+        LayoutAtlas atlas = atlas(snapshot, true);
+
+        Room onGrid = new Room(9.0, 9.0, 5250);
+        RoomLayout expected = engine.generateLayout(onGrid, snapshot.getIndex(), engine.rules());
+        RoomLayout layout = atlas.lookup(onGrid, snapshot, engine.rules());
+        assertNotNull(layout);
+        assertEquals(TestCatalog.ids(expected), TestCatalog.ids(layout));
+        assertEquals(expected.getTotalCost(), layout.getTotalCost());
+
+        assertNull(atlas.lookup(new Room(14.0, 14.0, 9000), snapshot, engine.rules()));
+    }
+
+    @Test
+    void nearestGridPointOnlyWhenExactOnlyIsOff() throws Exception {
+        CatalogSnapshot snapshot = snapshot(1, TestCatalog.items());
+        LayoutAtlas atlas = atlas(snapshot, false);
+
+        RoomLayout layout = atlas.lookup(new Room(14.0, 14.0, 9000), snapshot, engine.rules());
+        assertNotNull(layout);
+        assertEquals(14.0, layout.getRoom().getLength());
+        assertTrue(layout.getTotalCost() <= 5250);
+    }
+
+    private LayoutAtlasFile build(CatalogSnapshot snapshot) throws Exception {
+        Path file = dir.resolve("atlas.bin");
+        LayoutAtlasFile.build(file, snapshot, engine.rules(), engine, DIMENSION_STEP, BUDGET_STEP,
+                ForkJoinPool.commonPool(), () -> false);
+        return LayoutAtlasFile.open(file);
+    }
+
+    @Test
+    void startupDoesNotBuildByDefault() throws Exception {
+        CatalogSnapshot snapshot = snapshot(1, TestCatalog.items());
+        LayoutAtlas atlas = atlas(snapshot, DIMENSION_STEP, false);
+
+        atlas.start();
+        assertNull(atlas.lookup(new Room(9.0, 9.0, 5250), snapshot, engine.rules()));
+
+        assertFalse(atlas.getStats().isBuilding());
+        assertFalse(Files.exists(dir.resolve("atlas.bin")));
+        atlas.shutdown();
+    }
+
+    @Test
+    void startupRemovesUnfinishedBuilds() throws Exception {
+        Path stale = Files.createTempFile(dir, "atlas.bin", ".tmp");
+        Path unrelated = Files.createFile(dir.resolve("other.bin.tmp"));
+
+        LayoutAtlas atlas = atlas(snapshot(1, TestCatalog.items()), DIMENSION_STEP, false);
+        atlas.start();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(unrelated));
+        atlas.shutdown();
+    }
+
+    @Test
+    void shutdownCancelsBuildAndRemovesItsTemporaryFile() throws Exception {
+        // fine grid: the build takes far longer than the test waits for it
+        LayoutAtlas atlas = atlas(snapshot(1, TestCatalog.items()), 0.05, false);
+        assertTrue(atlas.rebuild());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (tmpFiles() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, tmpFiles());
+
+        atlas.shutdown();
+
+        assertEquals(0, tmpFiles());
+        assertFalse(atlas.getStats().isBuilding());
+        assertFalse(Files.exists(dir.resolve("atlas.bin")));
+        assertFalse(atlas.rebuild());
+    }
+
+    /** Atlas mapped from a prebuilt file, as on a restart with an unchanged catalog. */
+    private LayoutAtlas atlas(CatalogSnapshot snapshot, boolean exactOnly) throws Exception {
+        build(snapshot);
+        LayoutAtlas atlas = atlas(snapshot, DIMENSION_STEP, exactOnly);
+        atlas.start();
+        assertFalse(atlas.getStats().isBuilding());
+        return atlas;
+    }
+
+    private LayoutAtlas atlas(CatalogSnapshot snapshot, double dimensionStep, boolean exactOnly) {
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.current()).thenReturn(snapshot);
+        return new LayoutAtlas(catalogService, engine, new SimpleMeterRegistry(), true,
+                dir.resolve("atlas.bin").toString(), dimensionStep, BUDGET_STEP, exactOnly, false, 2,
+                EngineMode.GREEDY, CatalogSource.SNAPSHOT);
+    }
+
+    private long tmpFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".tmp")).count();
+        }
+    }
+
+    private static CatalogSnapshot snapshot(long version, List<Furniture> items) {
+        return new CatalogSnapshot(version, items, Instant.now());
+    }
+}
@@ -0,0 +1,162 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayoutCacheTest {
+
+    private final LayoutCache cache = new LayoutCache(true, 100, 600, 0.1, 1);
+
+    @Test
+    void concurrentMissesOnOneKeyComputeOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Room, RoomLayout> slowLoader = room -> {
+            loads.incrementAndGet();
+            await(release);
+            return layout(room, 1200);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<RoomLayout>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> cache.get(new Room(5.0, 4.0, 2000), 1, 7, slowLoader)));
+            }
+            // every other caller is parked on the first one's computation before it finishes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getStats().getCoalesced() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<RoomLayout> result : results) {
+                assertEquals(1200, result.get(10, TimeUnit.SECONDS).getTotalCost());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(callers - 1, cache.getStats().getCoalesced());
+    }
+
+    @Test
+    void hitReturnsCopyForTheCallersRoom() {
+        cache.get(new Room(5.0, 4.0, 2000), 1, 7, room -> layout(room, 1200));
+        Room requested = new Room(5.04, 4.0, 2000);
+
+        RoomLayout hit = cache.get(requested, 1, 7, room -> {
+            throw new AssertionError("should be cached");
+        });
+
+        assertEquals(1, cache.getStats().getHits());
+        assertSame(requested, hit.getRoom());
+        assertEquals(800, hit.getRemainingBudget());
+    }
+
+    @Test
+    void catalogVersionAndRulesRevisionAreSeparateKeys() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Room, RoomLayout> loader = room -> layout(room, 100 * loads.incrementAndGet());
+        Room room = new Room(5.0, 4.0, 2000);
+
+        cache.get(room, 1, 7, loader);
+        cache.get(room, 2, 7, loader);
+        cache.get(room, 2, 8, loader);
+        cache.get(room, 2, 8, loader);
+
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.getStats().getSize());
+    }
+
+    @Test
+    void quantizedRoomNeverExceedsTheRequest() {
+        Room quantized = cache.quantize(new Room(6.39, 4.01, 2099));
+
+        assertEquals(6.3, quantized.getLength());
+        assertEquals(4.0, quantized.getWidth());
+        assertEquals(2099, quantized.getBudget());
+        assertTrue(quantized.getLength() <= 6.39);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        Room room = new Room(5.0, 4.0, 2000);
+        assertThrows(IllegalStateException.class, () -> cache.get(room, 1, 7, r -> {
+            throw new IllegalStateException("catalog unavailable");
+        }));
+
+        RoomLayout layout = cache.get(room, 1, 7, r -> layout(r, 900));
+
+        assertEquals(900, layout.getTotalCost());
+        assertNotSame(layout, cache.get(room, 1, 7, r -> layout(r, 1)));
+    }
+
+    @Test
+    void errorInLoadReleasesCoalescedCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Room, RoomLayout> failingLoader = room -> {
+            await(release);
+            throw new StackOverflowError("deep recursion");
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<RoomLayout> first = pool.submit(() -> cache.get(new Room(5.0, 4.0, 2000), 1, 7, failingLoader));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getStats().getMisses() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Future<RoomLayout> waiting = pool.submit(() -> cache.get(new Room(5.0, 4.0, 2000), 1, 7, failingLoader));
+            while (cache.getStats().getCoalesced() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException failed = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+            assertTrue(failed.getCause() instanceof StackOverflowError);
+            ExecutionException coalesced = assertThrows(ExecutionException.class,
+                    () -> waiting.get(10, TimeUnit.SECONDS));
+            assertTrue(coalesced.getCause() instanceof StackOverflowError);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static RoomLayout layout(Room room, int cost) {
+        RoomLayout layout = new RoomLayout();
+        layout.setRoom(room);
+        layout.setTotalCost(cost);
+        layout.setRemainingBudget(room.getBudget() - cost);
+        return layout;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.interiordesign.service;
+
+import com.interiordesign.dao.LayoutHistoryDAO;
+import com.interiordesign.model.LayoutHistoryEntry;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LayoutHistoryServiceTest {
+
+    private final LayoutHistoryDAO dao = mock(LayoutHistoryDAO.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final CountDownLatch insertStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseInsert = new CountDownLatch(1);
+    private LayoutHistoryService history;
+
+    @AfterEach
+    void shutdown() throws Exception {
+        releaseInsert.countDown();
+        history.shutdown();
+    }
+
+    @Test
+    void recordedLayoutIsFoundBeforeItIsWritten() throws Exception {
+        history = service();
+        RoomLayout layout = layout();
+
+        assertTrue(history.record(layout, 1));
+        assertTrue(insertStarted.await(5, TimeUnit.SECONDS)); // writer is inside the insert
+
+        RoomLayout found = history.find(layout.getId());
+        assertNotNull(found);
+        assertNotSame(layout, found);
+        assertEquals(layout.getId(), found.getId());
+        assertEquals(TestCatalog.ids(layout), TestCatalog.ids(found));
+        assertEquals(layout.getTotalCost(), found.getTotalCost());
+        verify(dao, never()).find(anyLong());
+    }
+
+    @Test
+    void writtenLayoutIsReadFromTheDatabase() throws Exception {
+        history = service();
+        RoomLayout layout = layout();
+        RoomLayout stored = new RoomLayout();
+        when(dao.find(anyLong())).thenReturn(stored);
+
+        assertTrue(history.record(layout, 1));
+        releaseInsert.countDown();
+        history.shutdown(); // waits for the writer to finish the batch
+
+        assertSame(stored, history.find(layout.getId()));
+    }
+
+    @Test
+    void unknownIdIsReadFromTheDatabase() {
+        history = service();
+
+        assertNull(history.find(42));
+        verify(dao).find(42);
+    }
+
+    @Test
+    void layoutRecordedDuringShutdownIsWrittenOrRefused() throws Exception {
+        CountDownLatch allocating = new CountDownLatch(1);
+        CountDownLatch releaseAllocation = new CountDownLatch(1);
+        when(dao.nextIdBlock()).thenAnswer(invocation -> {
+            allocating.countDown();
+            releaseAllocation.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            List<LayoutHistoryEntry> batch = invocation.getArgument(0);
+            for (LayoutHistoryEntry entry : batch) {
+                written.add(entry.getId());
+            }
+            return null;
+        }).when(dao).insert(anyList());
+        history = service(10);
+        RoomLayout layout = layout();
+
+        // record() has passed its running check and waits for an id when shutdown starts
+        boolean[] recorded = new boolean[1];
+        Thread recorder = new Thread(() -> recorded[0] = history.record(layout, 1));
+        recorder.start();
+        assertTrue(allocating.await(5, TimeUnit.SECONDS));
+        Thread stopper = new Thread(() -> {
+            try {
+                history.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        stopper.join(200);
+        releaseAllocation.countDown();
+        recorder.join(5000);
+        stopper.join(5000);
+
+        if (recorded[0]) {
+            assertEquals(Set.of(layout.getId()), written);
+        } else {
+            assertNull(layout.getId());
+            assertTrue(written.isEmpty());
+        }
+    }
+
+    private LayoutHistoryService service() {
+        when(dao.nextIdBlock()).thenReturn(1L);
+        doAnswer(invocation -> {
+            insertStarted.countDown();
+            releaseInsert.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(dao).insert(anyList());
+        return service(10);
+    }
+
+    private LayoutHistoryService service(int queueCapacity) {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new LayoutHistoryService(dao, transactionTemplate, new DatabaseBulkhead(registry, 8, 1000), registry,
+                true, queueCapacity, 10, 10, 0);
+    }
+
+    private static RoomLayout layout() {
+        return new RuleEngine().generateLayout(new Room(5.0, 4.0, 2000), TestCatalog.index());
+    }
+}
@@ -0,0 +1,75 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LayoutServiceTest {
+
+    private final RuleEngine engine = new RuleEngine();
+    private final LayoutHistoryService history = mock(LayoutHistoryService.class);
+    private final LayoutService service = service();
+
+    @Test
+    void relayoutOfRoleRoomUsesTheRoleRules() {
+        RoomLayout previous = new RoomLayout();
+        previous.setRoom(new Room(4.0, 4.0, 600));
+        previous.setRole("study");
+
+        RoomLayout layout = service.relayout(previous, new Room(6.0, 5.0, 4000));
+
+        assertEquals("study", layout.getRole());
+        assertFalse(layout.getPlaced().isEmpty());
+        for (FurniturePosition p : layout.getPlaced()) {
+            assertTrue(Set.of("bookshelf", "armchair").contains(p.getFurniture().getCategory()),
+                    p.getFurniture().getCategory());
+        }
+        verify(history).record(layout, 1);
+    }
+
+    @Test
+    void relayoutOfRoomWithoutRoleUsesAllRules() {
+        RoomLayout previous = new RoomLayout();
+        previous.setRoom(new Room(4.0, 4.0, 600));
+
+        RoomLayout layout = service.relayout(previous, new Room(6.0, 5.0, 4000));
+
+        assertNull(layout.getRole());
+        assertEquals(engine.rules().size(), layout.getPlaced().size());
+    }
+
+    @Test
+    void relayoutOfRemovedRoleFallsBackToAllRules() {
+        RoomLayout previous = new RoomLayout();
+        previous.setRoom(new Room(4.0, 4.0, 600));
+        previous.setRole("garage");
+
+        RoomLayout layout = service.relayout(previous, new Room(6.0, 5.0, 4000));
+
+        assertNull(layout.getRole());
+        assertEquals(engine.rules().size(), layout.getPlaced().size());
+        assertTrue(layout.getErrors().get(0).contains("'garage'"), layout.getErrors().toString());
+    }
+
+    private LayoutService service() {
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.current()).thenReturn(new CatalogSnapshot(1, TestCatalog.items(), Instant.now()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new LayoutService(catalogService, engine, mock(LayoutSolver.class), mock(LayoutCache.class),
+                mock(LayoutAtlas.class), new LayoutMetrics(registry), history, new DatabaseBulkhead(registry, 2, 100),
+                EngineMode.GREEDY, CatalogSource.SNAPSHOT);
+    }
+}
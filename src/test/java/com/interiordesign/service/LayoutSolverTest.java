@@ -0,0 +1,112 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.RankedLayout;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayoutSolverTest {
+
+    private static final String SOFA = "{'category':'sofa','placement':'longest-wall','wallOffset':0.5,"
+            + "'budget':'required','weight':10}";
+    private static final String COFFEE = "{'category':'coffee','placement':'in-front-of','relativeTo':'sofa',"
+            + "'distance':0.8,'budget':'required','weight':6}";
+    private static final String TV = "{'category':'tvstand','placement':'opposite-wall','relativeTo':'sofa',"
+            + "'wallOffset':0.5,'budget':'required','weight':8}";
+    private static final String BOOKSHELF = "{'category':'bookshelf','placement':'corner','wallOffset':0.1,"
+            + "'budget':'optional','weight':3}";
+
+    private final RuleEngine engine = new RuleEngine();
+    private final LayoutSolver solver = new LayoutSolver(engine, 10_000, 8, 2);
+    private final CatalogIndex catalog = CatalogIndex.of(TestCatalog.withVariants());
+
+    @AfterEach
+    void shutdown() {
+        solver.shutdown();
+    }
+
+    @Test
+    void solvesSingleRuleDocument() {
+        PlacementRules rules = TestCatalog.rules("{'rules':[" + SOFA + "]}");
+
+        RoomLayout layout = solver.solve(new Room(5.0, 4.0, 2000), catalog, rules);
+
+        assertEquals("100", TestCatalog.ids(layout)); // the deluxe sofa uses more of the budget
+        assertTrue(layout.getErrors().isEmpty());
+    }
+
+    @Test
+    void solvesSingleRuleRole() {
+        PlacementRules rules = TestCatalog.rules("{'rules':[" + SOFA + "," + BOOKSHELF + "],"
+                + "'roles':{'study':['bookshelf']}}");
+
+        RoomLayout layout = solver.solve(new Room(3.0, 3.0, 1000), catalog, rules.forRole("study"));
+
+        assertEquals("103", TestCatalog.ids(layout)); // deluxe bookshelf
+    }
+
+    @Test
+    void scoresAtLeastAsWellAsGreedyWithinBudget() {
+        List<String> documents = List.of(
+                "{'rules':[" + SOFA + "]}",
+                "{'rules':[" + SOFA + "," + COFFEE + "]}",
+                "{'rules':[" + SOFA + "," + TV + "," + BOOKSHELF + "]}");
+        List<Room> rooms = List.of(new Room(3.0, 3.0, 500), new Room(4.0, 3.5, 1000), new Room(5.0, 4.0, 1500),
+                new Room(8.0, 6.0, 4000));
+        int compared = 0;
+        for (String document : documents) {
+            PlacementRules rules = TestCatalog.rules(document);
+            for (Room room : rooms) {
+                RoomLayout greedy = engine.generateLayout(room, catalog, rules);
+                RoomLayout solved = solver.solve(room, catalog, rules);
+
+                assertTrue(solved.getTotalCost() <= room.getBudget(), document + " " + room);
+                if (greedy.getTotalCost() > room.getBudget()) continue; // greedy charges required items anyway
+                assertTrue(score(solved, rules, room) >= score(greedy, rules, room) - 1e-9,
+                        document + " " + room + ": solver " + TestCatalog.ids(solved)
+                                + ", greedy " + TestCatalog.ids(greedy));
+                compared++;
+            }
+        }
+        assertTrue(compared >= 6, "only " + compared + " rooms within budget for greedy");
+    }
+
+    @Test
+    void topKLayoutsAreDistinctAndRanked() {
+        PlacementRules rules = TestCatalog.rules("{'rules':[" + SOFA + "," + COFFEE + "]}");
+
+        List<RankedLayout> ranked = solver.solveTopK(new Room(6.0, 5.0, 3000), catalog, rules, 5);
+
+        assertEquals(5, ranked.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            assertEquals(i + 1, ranked.get(i).getRank());
+            assertTrue(seen.add(TestCatalog.ids(ranked.get(i).getLayout())));
+            if (i > 0) {
+                assertTrue(ranked.get(i).getScore() <= ranked.get(i - 1).getScore());
+            }
+        }
+    }
+
+    /** The solver's objective: rule weights of the placed items plus the share of the budget spent. */
+    private static double score(RoomLayout layout, PlacementRules rules, Room room) {
+        int weight = 0;
+        for (FurniturePosition p : layout.getPlaced()) {
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (rules.step(rule).category.equals(p.getFurniture().getCategory())) {
+                    weight += rules.step(rule).weight;
+                }
+            }
+        }
+        return weight + 5.0 * layout.getTotalCost() / room.getBudget();
+    }
+}
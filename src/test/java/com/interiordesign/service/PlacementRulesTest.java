@@ -0,0 +1,47 @@
+package com.interiordesign.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlacementRulesTest {
+
+    @Test
+    void everyRoleHasItsOwnRevision() {
+        PlacementRules rules = PlacementRules.defaults();
+
+        Set<Long> revisions = new HashSet<>();
+        revisions.add(rules.getRevision());
+        for (String role : rules.getRoles()) {
+            assertTrue(revisions.add(rules.forRole(role).getRevision()), role);
+        }
+        assertEquals(rules.getRoles().size() + 1, revisions.size());
+    }
+
+    @Test
+    void rolesWithTheSameRulesStillHaveTheirOwnRevision() {
+        PlacementRules rules = PlacementRules.defaults();
+        PlacementRules bedroom = rules.forRole("bedroom");
+        PlacementRules study = rules.forRole("study");
+
+        // listed in a different order, applied in rule order: the same rules
+        assertEquals(bedroom.getCategories(), study.getCategories());
+        assertNotEquals(bedroom.getRevision(), study.getRevision());
+    }
+
+    @Test
+    void roleRevisionFollowsTheDocument() {
+        PlacementRules rules = PlacementRules.defaults();
+        PlacementRules same = PlacementRules.defaults();
+        PlacementRules edited = TestCatalog.rules("{'rules':[{'category':'bookshelf','placement':'corner',"
+                + "'wallOffset':0.1,'budget':'optional','weight':3}],'roles':{'study':['bookshelf']}}");
+
+        assertEquals(rules.forRole("study").getRevision(), same.forRole("study").getRevision());
+        assertNotEquals(rules.forRole("study").getRevision(), edited.forRole("study").getRevision());
+    }
+}
@@ -0,0 +1,58 @@
+package com.interiordesign.service;
+
+import com.interiordesign.model.Furniture;
+import com.interiordesign.model.FurniturePosition;
+import com.interiordesign.model.RoomLayout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogs and rules documents for service tests; items() is the sample
+ * catalog of data.sql.
+ */
+final class TestCatalog {
+
+    private TestCatalog() {}
+
+    static List<Furniture> items() {
+        List<Furniture> items = new ArrayList<>();
+        items.add(new Furniture(1L, "Sofa", 2.0, 0.9, 800, "sofa"));
+        items.add(new Furniture(2L, "Coffee Table", 1.2, 0.6, 200, "coffee"));
+        items.add(new Furniture(3L, "TV Stand", 1.5, 0.4, 300, "tvstand"));
+        items.add(new Furniture(4L, "Bookshelf", 0.8, 0.3, 150, "bookshelf"));
+        items.add(new Furniture(5L, "Side Table", 0.5, 0.5, 100, "sidetable"));
+        items.add(new Furniture(6L, "Armchair", 0.8, 0.8, 400, "armchair"));
+        return items;
+    }
+
+    /** The sample catalog plus pricier variants, so there is more than one choice per category. */
+    static List<Furniture> withVariants() {
+        List<Furniture> items = items();
+        long id = 100;
+        for (Furniture f : items()) {
+            items.add(new Furniture(id++, f.getName() + " Deluxe", f.getWidth(), f.getDepth(),
+                    f.getPrice() * 2, f.getCategory()));
+        }
+        return items;
+    }
+
+    static CatalogIndex index() {
+        return CatalogIndex.of(items());
+    }
+
+    static PlacementRules rules(String json) {
+        return PlacementRules.compile(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8), "test");
+    }
+
+    /** Item ids of a layout in placement order, e.g. "1,2,3". */
+    static String ids(RoomLayout layout) {
+        StringBuilder sb = new StringBuilder();
+        for (FurniturePosition p : layout.getPlaced()) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(p.getFurniture().getId());
+        }
+        return sb.toString();
+    }
+}
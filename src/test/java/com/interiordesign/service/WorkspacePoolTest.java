@@ -0,0 +1,81 @@
+package com.interiordesign.service;
+
+import com.interiordesign.config.VirtualThreads;
+import com.interiordesign.model.Room;
+import com.interiordesign.model.RoomLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WorkspacePoolTest {
+
+    @Test
+    void releasedWorkspaceIsReusedOnAnotherThread() throws Exception {
+        WorkspacePool pool = new WorkspacePool(2);
+        PlacementWorkspace ws = pool.acquire();
+        pool.release(ws);
+
+        PlacementWorkspace[] other = new PlacementWorkspace[1];
+        Thread thread = new Thread(() -> other[0] = pool.acquire());
+        thread.start();
+        thread.join();
+
+        assertSame(ws, other[0]);
+    }
+
+    @Test
+    void keepsAtMostCapacityIdleWorkspaces() {
+        WorkspacePool pool = new WorkspacePool(1);
+        PlacementWorkspace a = pool.acquire();
+        PlacementWorkspace b = pool.acquire();
+        assertNotSame(a, b);
+
+        pool.release(a);
+        pool.release(b); // dropped
+
+        assertSame(a, pool.acquire());
+        assertNotSame(b, pool.acquire());
+    }
+
+    @Test
+    void concurrentLayoutsOnNewThreadsMatchSequentialOnes() {
+        // a candidate time budget the test never hits: under load the default 500 us cuts candidate lists short
+        RuleEngine engine = new RuleEngine(OccupancyType.GRID, 0.5, 256, 10_000_000);
+        CatalogIndex catalog = TestCatalog.index();
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            rooms.add(new Room(3.0 + (i % 12), 3.0 + (i % 7), 800 + 100 * (i % 20)));
+        }
+        List<String> expected = new ArrayList<>();
+        for (Room room : rooms) {
+            expected.add(describe(engine.generateLayout(room, catalog)));
+        }
+
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("pool-test");
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (Room room : rooms) {
+                results.add(CompletableFuture.supplyAsync(
+                        () -> describe(engine.generateLayout(room, catalog)), executor));
+            }
+            for (int i = 0; i < rooms.size(); i++) {
+                assertEquals(expected.get(i), results.get(i).join(), "room " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(RoomLayout layout) {
+        StringBuilder sb = new StringBuilder(TestCatalog.ids(layout));
+        layout.getPlaced().forEach(p -> sb.append(' ').append(p.getX()).append('/').append(p.getY()));
+        return sb.append(" $").append(layout.getTotalCost()).append(layout.getErrors()).toString();
+    }
+}